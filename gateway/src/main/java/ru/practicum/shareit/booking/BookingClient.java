@@ -1,79 +1,101 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.RequestHedger;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.ServerEndpoints;
+import ru.practicum.shareit.client.UpstreamGuards;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final RequestHedger.Route bookingById;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, ServerConnectionPool pool,
+                         ServerEndpoints endpoints, UpstreamGuards guards, RequestCoalescer coalescer,
+                         RequestHedger hedger, ObjectMapper objectMapper, GatewayResponseCache cache) {
+        super(pool, endpoints, guards.forClient("bookings"), coalescer, serverUrl + API_PREFIX,
+                objectMapper, cache, "/items");
+        bookingById = hedger.route("bookings/{id}");
     }
 
-    public ResponseEntity<Object> getAllUserBookings(long userId, String state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllUserBookings(long userId, String state, Integer from, Integer size, String cursor) {
         StringBuilder pathBuilder = new StringBuilder();
         Map<String, Object> parameters = new HashMap<>();
 
-        setParameters(pathBuilder, parameters, state, from, size);
+        setParameters(pathBuilder, parameters, state, from, size, cursor);
 
         String path = pathBuilder.toString();
         return get(path, userId, parameters);
     }
 
 
-    public ResponseEntity<Object> createBooking(long userId, BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> createBooking(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> getBooking(long userId, Long bookingId) {
+        return getHedged("/" + bookingId, userId, bookingById);
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, String state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getOwnerBookings(long userId, String state, Integer from, Integer size, String cursor) {
         StringBuilder pathBuilder = new StringBuilder("/owner");
         Map<String, Object> parameters = new HashMap<>();
 
-        setParameters(pathBuilder, parameters, state, from, size);
+        setParameters(pathBuilder, parameters, state, from, size, cursor);
 
         String path = pathBuilder.toString();
         return get(path, userId, parameters);
     }
 
-    public ResponseEntity<Object> updateBookingStatus(long bookingId, String approved, long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> updateBookingStatus(long bookingId, String approved, long userId) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    private void setParameters(StringBuilder pathBuilder, Map<String, Object> parameters, String state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> updateBookingStatuses(long userId, List<BookingStatusUpdateDto> updates) {
+        return patch("/batch", userId, updates);
+    }
+
+    private void setParameters(StringBuilder pathBuilder, Map<String, Object> parameters, String state, Integer from,
+                               Integer size, String cursor) {
         if (state != null) {
             pathBuilder.append("?state={state}");
             parameters.put("state", state);
         }
 
-        if (from != null && size != null) {
-            String separator = pathBuilder.toString().contains("?") ? "&" : "?";
-            pathBuilder.append(separator).append("from={from}&size={size}");
-            parameters.put("from", from);
-            parameters.put("size", size);
+        if (cursor != null) {
+            appendParameter(pathBuilder, parameters, "cursor", cursor);
+            if (size != null) {
+                appendParameter(pathBuilder, parameters, "size", size);
+            }
+        } else if (from != null && size != null) {
+            appendParameter(pathBuilder, parameters, "from", from);
+            appendParameter(pathBuilder, parameters, "size", size);
         }
     }
+
+    private void appendParameter(StringBuilder pathBuilder, Map<String, Object> parameters, String name, Object value) {
+        String separator = pathBuilder.toString().contains("?") ? "&" : "?";
+        pathBuilder.append(separator).append(name).append("={").append(name).append("}");
+        parameters.put(name, value);
+    }
 }
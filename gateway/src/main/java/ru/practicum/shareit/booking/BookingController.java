@@ -7,10 +7,16 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.ratelimit.RateLimitCost;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -21,42 +27,55 @@ public class BookingController {
 	private final BookingClient bookingClient;
 	private static final String USER_ID = "X-Sharer-User-Id";
 
+	@RateLimitCost(value = 5, unpaged = 20)
 	@GetMapping
-	public ResponseEntity<Object> getALLUserBookings(@RequestHeader(USER_ID) long userId,
+	public CompletableFuture<ResponseEntity<byte[]>> getALLUserBookings(@RequestHeader(USER_ID) long userId,
 			@RequestParam(name = "state", required = false) String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", required = false) Integer from,
-			@Positive @RequestParam(name = "size", required = false) Integer size) {
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getAllUserBookings(userId, stateParam, from, size);
+			@Positive @RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getAllUserBookings(userId, stateParam, from, size, cursor);
 	}
 
+	@RateLimitCost(value = 5, unpaged = 20)
 	@GetMapping("/owner")
-	public ResponseEntity<Object> getAllOwnerBookings(@RequestHeader(value = USER_ID) long userId,
+	public CompletableFuture<ResponseEntity<byte[]>> getAllOwnerBookings(@RequestHeader(value = USER_ID) long userId,
 															@RequestParam(name = "from", required = false) Integer from,
 															@RequestParam(name = "size", required = false) Integer size,
 															@RequestParam(name = "state",
-																	required = false, defaultValue = "ALL") String stateParam) {
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getOwnerBookings(userId, stateParam, from, size);
+																	required = false, defaultValue = "ALL") String stateParam,
+															@RequestParam(name = "cursor", required = false) String cursor) {
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getOwnerBookings(userId, stateParam, from, size, cursor);
 	}
 
 	@PostMapping
-	public ResponseEntity<Object> createBooking(@RequestHeader(USER_ID) long userId,
+	public CompletableFuture<ResponseEntity<byte[]>> createBooking(@RequestHeader(USER_ID) long userId,
 												@RequestBody @Valid BookItemRequestDto requestDto) {
 		log.info("Creating booking {}, userId={}", requestDto, userId);
 		return bookingClient.createBooking(userId, requestDto);
 	}
 
 	@PatchMapping("/{bookingId}")
-	public ResponseEntity<Object> updateBookingStatus(@PathVariable long bookingId,
+	public CompletableFuture<ResponseEntity<byte[]>> updateBookingStatus(@PathVariable long bookingId,
 													  @RequestParam(name = "approved") String approved,
 													  @RequestHeader(value = USER_ID) long userId) {
 		log.info("Update booking status {}, approved={}, userId={}", bookingId, approved, userId);
 		return bookingClient.updateBookingStatus(bookingId, approved, userId);
 	}
 
+	@RateLimitCost(10)
+	@PatchMapping("/batch")
+	public CompletableFuture<ResponseEntity<byte[]>> updateBookingStatuses(@RequestHeader(value = USER_ID) long userId,
+														@RequestBody @NotEmpty @Size(max = 100)
+														List<@Valid BookingStatusUpdateDto> updates) {
+		log.info("Update {} booking statuses, userId={}", updates.size(), userId);
+		return bookingClient.updateBookingStatuses(userId, updates);
+	}
+
 	@GetMapping("/{bookingId}")
-	public ResponseEntity<Object> getBooking(@RequestHeader(USER_ID) long userId,
+	public CompletableFuture<ResponseEntity<byte[]>> getBooking(@RequestHeader(USER_ID) long userId,
 			@PathVariable Long bookingId) {
 		log.info("Get booking {}, userId={}", bookingId, userId);
 		return bookingClient.getBooking(userId, bookingId);
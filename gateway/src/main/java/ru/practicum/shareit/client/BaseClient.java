@@ -1,121 +1,292 @@
 package ru.practicum.shareit.client;
 
-import java.util.List;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import org.springframework.http.HttpEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
 
+/**
+ * Forwards requests to the ShareIt server without holding a thread while the server answers: calls go out
+ * through the shared {@link ServerConnectionPool} and controllers hand the returned futures to Spring MVC
+ * as async results.
+ */
+@Slf4j
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final String USER_ID = "X-Sharer-User-Id";
+    /**
+     * Milliseconds the server has left to answer; it stops working on the request once they run out.
+     */
+    public static final String REQUEST_TIMEOUT = "X-Request-Timeout";
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "content-length", "upgrade", "te", "trailer", "proxy-authenticate", "proxy-authorization");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final ServerConnectionPool pool;
+    protected final ServerEndpoints endpoints;
+    protected final UpstreamGuard guard;
+    private final RequestCoalescer coalescer;
+    private final DefaultUriBuilderFactory uriFactory;
+    private final ObjectMapper objectMapper;
+    @Nullable
+    private final GatewayResponseCache cache;
+    private final String[] invalidatedPaths;
+
+    public BaseClient(ServerConnectionPool pool, ServerEndpoints endpoints, UpstreamGuard guard,
+                      RequestCoalescer coalescer, String baseUrl, ObjectMapper objectMapper) {
+        this(pool, endpoints, guard, coalescer, baseUrl, objectMapper, null);
+    }
+
+    /**
+     * @param invalidatedPaths server path prefixes whose cached reads a write through this client can make stale
+     */
+    public BaseClient(ServerConnectionPool pool, ServerEndpoints endpoints, UpstreamGuard guard,
+                      RequestCoalescer coalescer, String baseUrl, ObjectMapper objectMapper,
+                      @Nullable GatewayResponseCache cache, String... invalidatedPaths) {
+        this.pool = pool;
+        this.endpoints = endpoints;
+        this.guard = guard;
+        this.coalescer = coalescer;
+        this.uriFactory = new DefaultUriBuilderFactory(baseUrl);
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.invalidatedPaths = invalidatedPaths;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null);
+    }
+
+    protected CompletableFuture<ResponseEntity<byte[]>> getHedged(String path, long userId, RequestHedger.Route hedge) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, null, null, hedge);
+    }
+
+    /**
+     * GET through the {@link GatewayResponseCache}: a fresh entry is served without calling the server, a stale
+     * one is revalidated with If-None-Match and served again on 304.
+     */
+    protected CompletableFuture<ResponseEntity<byte[]>> getCached(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return getCached(path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected CompletableFuture<ResponseEntity<byte[]>> getCached(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                                  @Nullable RequestHedger.Route hedge) {
+        if (cache == null) {
+            return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, hedge);
+        }
+        URI uri = uri(path, parameters);
+        GatewayResponseCache.Entry entry = cache.get(uri, userId);
+        if (entry != null && cache.isFresh(entry)) {
+            cache.recordFreshHit();
+            return CompletableFuture.completedFuture(entry.toResponseEntity());
+        }
+        long generation = cache.generation();
+        Deadline deadline = deadline();
+        return coalescer.execute(HttpMethod.GET.name(), uri, userId, entry != null ? entry.getEtag() : null,
+                        () -> send(uri, target -> {
+                            HttpRequest.Builder requestBuilder = defaultRequest(target, userId, deadline).GET();
+                            if (entry != null) {
+                                requestBuilder.header(HttpHeaders.IF_NONE_MATCH, entry.getEtag());
+                            }
+                            return requestBuilder.build();
+                        }, hedge, deadline))
+                .thenApply(response -> {
+                    if (entry != null && response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                        return cache.revalidated(uri, userId, entry);
+                    }
+                    cache.recordMiss();
+                    ResponseEntity<byte[]> responseEntity = prepareGatewayResponse(response);
+                    cache.store(uri, userId, responseEntity, generation);
+                    return responseEntity;
+                });
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    protected URI uri(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null ? uriFactory.expand(path, parameters) : uriFactory.expand(path);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private <T> CompletableFuture<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                                              @Nullable RequestHedger.Route hedge) {
+        URI uri = uri(path, parameters);
+        HttpRequest.BodyPublisher bodyPublisher;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            bodyPublisher = bodyPublisher(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        Deadline deadline = deadline();
+        Function<URI, HttpRequest> requestFor = target -> defaultRequest(target, userId, deadline)
+                .method(method.name(), bodyPublisher)
+                .build();
+        if (method == HttpMethod.GET) {
+            return coalescer.execute(method.name(), uri, userId, null, () -> send(uri, requestFor, hedge, deadline))
+                    .thenApply(BaseClient::prepareGatewayResponse);
+        }
+        CompletableFuture<HttpResponse<byte[]>> response = send(uri, requestFor, null, deadline);
+        if (cache != null && invalidatedPaths.length > 0) {
+            response = response.whenComplete((r, e) -> cache.invalidate(invalidatedPaths));
+        }
+        return response.thenApply(BaseClient::prepareGatewayResponse);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
-        }
-        return headers;
+    /**
+     * Sends the request built by {@code requestFor} for the replica {@link ServerEndpoints} picks for {@code uri},
+     * hedged on another replica when {@code hedge} is given and the first call is slow.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(URI uri, Function<URI, HttpRequest> requestFor,
+                                                         @Nullable RequestHedger.Route hedge, Deadline deadline) {
+        ServerEndpoints.Attempts attempts = new ServerEndpoints.Attempts(deadline.fromCaller);
+        Supplier<CompletableFuture<HttpResponse<byte[]>>> call = () -> guard.call(() -> endpoints.send(uri,
+                target -> pool.send(requestFor.apply(target), HttpResponse.BodyHandlers.ofByteArray()), attempts),
+                deadline.fromCaller);
+        return hedge != null ? hedge.execute(call) : call.get();
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private HttpRequest.BodyPublisher bodyPublisher(@Nullable Object body) throws IOException {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
         }
+        byte[] originalBytes = OriginalRequestBodyAdvice.originalBytes(body);
+        return HttpRequest.BodyPublishers.ofByteArray(originalBytes != null
+                ? originalBytes
+                : objectMapper.writeValueAsBytes(body));
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    /**
+     * Deadline for the current call as {@link System#nanoTime()}: the client's timeout from now, or sooner when
+     * the caller sent a shorter {@value #REQUEST_TIMEOUT} of its own. Must be read on the request thread.
+     */
+    private Deadline deadline() {
+        long timeout = guard.getTimeout().toNanos();
+        long budget = timeout;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            String header = ((ServletRequestAttributes) attributes).getRequest().getHeader(REQUEST_TIMEOUT);
+            try {
+                if (header != null) {
+                    budget = Math.min(budget, TimeUnit.MILLISECONDS.toNanos(Long.parseLong(header.trim())));
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed {} header: {}", REQUEST_TIMEOUT, header);
+            }
+        }
+        return new Deadline(System.nanoTime() + budget, budget < timeout);
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    /**
+     * Both the request timeout and the {@value #REQUEST_TIMEOUT} header carry what is left until
+     * {@code deadline}, so retries and hedges sent later get less time, not a fresh budget.
+     */
+    private HttpRequest.Builder defaultRequest(URI uri, Long userId, Deadline deadline) {
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline.at - System.nanoTime()));
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(remainingMillis))
+                .header(REQUEST_TIMEOUT, String.valueOf(remainingMillis))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (userId != null) {
+            requestBuilder.header(USER_ID, String.valueOf(userId));
         }
+        return requestBuilder;
+    }
+
+    /**
+     * Passes the server's status, end-to-end headers and body bytes through as they are; the body is never parsed.
+     */
+    private static ResponseEntity<byte[]> prepareGatewayResponse(HttpResponse<byte[]> response) {
+        log.debug("{} {} -> {}", response.request().method(), response.uri(), response.statusCode());
+        byte[] body = response.body();
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.statusCode());
+        response.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                responseBuilder.header(name, values.toArray(String[]::new));
+            }
+        });
+        return body.length > 0 ? responseBuilder.body(body) : responseBuilder.build();
+    }
 
-        return responseBuilder.build();
+    /**
+     * When the current call must end, as {@link System#nanoTime()}, and whether the caller set it sooner than
+     * the client's timeout.
+     */
+    @RequiredArgsConstructor
+    private static final class Deadline {
+        private final long at;
+        private final boolean fromCaller;
     }
 }
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. While closed it records the outcome of the last {@code windowSize} calls and
+ * opens once at least {@code minimumCalls} were recorded and the failed share reaches the threshold. While
+ * open every call is refused until {@code openDuration} has passed; then up to {@code halfOpenCalls} trial
+ * calls go through. The breaker closes when all of them succeed and opens again on the first failure.
+ * <p>
+ * Every call takes a permit stamped with the breaker's epoch, which changes on each state transition, so
+ * calls that complete after a transition cannot sway the state they were not admitted under.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private long epoch;
+    private long openedAt;
+    private int recorded;
+    private int failures;
+    private int next;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openNanos, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openNanos, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold, long openNanos,
+                   int halfOpenCalls, LongSupplier clock) {
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the epoch to pass to {@link #onResult}, or -1 when the call must not be made
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return -1;
+            }
+            trialsStarted++;
+        }
+        return epoch;
+    }
+
+    /**
+     * Gives back a permit whose call was never made.
+     */
+    public synchronized void release(long permitEpoch) {
+        if (permitEpoch == epoch && state == State.HALF_OPEN) {
+            trialsStarted--;
+        }
+    }
+
+    public synchronized void onResult(long permitEpoch, boolean success) {
+        if (permitEpoch != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                transition(State.OPEN);
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (recorded == outcomes.length) {
+            failures -= outcomes[next] ? 0 : 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = success;
+        failures += success ? 0 : 1;
+        next = (next + 1) % outcomes.length;
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State to) {
+        log.warn("Circuit breaker {}: {} -> {}", name, state, to);
+        state = to;
+        epoch++;
+        recorded = 0;
+        failures = 0;
+        next = 0;
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+        if (to == State.OPEN) {
+            openedAt = clock.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache of server GET responses that carry an ETag, keyed by URI and caller id. An entry is
+ * served as is for {@code ttl} after it was stored or revalidated; after that it is revalidated with
+ * If-None-Match. Writes the gateway forwards evict every entry under the paths they can affect.
+ */
+@Component
+public class GatewayResponseCache {
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long generation;
+    private long freshHits;
+    private long revalidatedHits;
+    private long misses;
+
+    @Autowired
+    public GatewayResponseCache(MeterRegistry meterRegistry,
+                                @Value("${shareit-gateway.cache.enabled:true}") boolean enabled,
+                                @Value("${shareit-gateway.cache.max-entries:10000}") int maxEntries,
+                                @Value("${shareit-gateway.cache.max-bytes:64MB}") DataSize maxBytes,
+                                @Value("${shareit-gateway.cache.ttl:1s}") Duration ttl) {
+        this(meterRegistry, enabled, maxEntries, maxBytes, ttl, System::nanoTime);
+    }
+
+    GatewayResponseCache(MeterRegistry meterRegistry, boolean enabled, int maxEntries, DataSize maxBytes,
+                         Duration ttl, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes.toBytes();
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        FunctionCounter.builder("shareit.gateway.cache.gets", this, cache -> cache.read(() -> cache.freshHits))
+                .tag("result", "fresh")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.gateway.cache.gets", this, cache -> cache.read(() -> cache.revalidatedHits))
+                .tag("result", "revalidated")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.gateway.cache.gets", this, cache -> cache.read(() -> cache.misses))
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.cache.size", this, cache -> cache.read(cache.entries::size))
+                .register(meterRegistry);
+        Gauge.builder("shareit.gateway.cache.bytes", this, cache -> cache.read(() -> cache.bytes))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Must be read before sending the request whose response is later passed to {@link #store}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    @Nullable
+    public synchronized Entry get(URI uri, @Nullable Long userId) {
+        return enabled ? entries.get(new Key(uri, userId)) : null;
+    }
+
+    public boolean isFresh(Entry entry) {
+        return clock.getAsLong() - entry.storedAt < ttlNanos;
+    }
+
+    public synchronized void recordFreshHit() {
+        freshHits++;
+    }
+
+    public synchronized void recordMiss() {
+        misses++;
+    }
+
+    /**
+     * The server answered 304 for {@code entry}: serve it and start its freshness period over.
+     */
+    public synchronized ResponseEntity<byte[]> revalidated(URI uri, @Nullable Long userId, Entry entry) {
+        revalidatedHits++;
+        Key key = new Key(uri, userId);
+        if (entries.get(key) == entry) {
+            entries.put(key, new Entry(entry.headers, entry.body, clock.getAsLong()));
+        }
+        return entry.toResponseEntity();
+    }
+
+    /**
+     * Keeps a 200 response with an ETag, unless a write was forwarded after {@code requestGeneration} was read.
+     */
+    public synchronized void store(URI uri, @Nullable Long userId, ResponseEntity<byte[]> response,
+                                   long requestGeneration) {
+        Key key = new Key(uri, userId);
+        if (!enabled || requestGeneration != generation || response.getStatusCode() != HttpStatus.OK
+                || response.getHeaders().getETag() == null) {
+            remove(key);
+            return;
+        }
+        byte[] body = response.getBody() == null ? new byte[0] : response.getBody();
+        if (body.length > maxBytes) {
+            remove(key);
+            return;
+        }
+        Entry replaced = entries.put(key, new Entry(response.getHeaders(), body, clock.getAsLong()));
+        bytes += body.length - (replaced == null ? 0 : replaced.body.length);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().body.length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(String... pathPrefixes) {
+        generation++;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            String path = entry.getKey().uri.getPath();
+            for (String prefix : pathPrefixes) {
+                if (path.startsWith(prefix)) {
+                    bytes -= entry.getValue().body.length;
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.body.length;
+        }
+    }
+
+    private synchronized double read(LongSupplier value) {
+        return value.getAsLong();
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Key {
+        private final URI uri;
+        private final Long userId;
+    }
+
+    @AllArgsConstructor
+    public static final class Entry {
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final long storedAt;
+
+        public String getEtag() {
+            return headers.getETag();
+        }
+
+        public ResponseEntity<byte[]> toResponseEntity() {
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
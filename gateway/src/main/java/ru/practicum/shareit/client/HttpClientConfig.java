@@ -0,0 +1,88 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Runs response callbacks only; no thread waits on the server, so a few threads serve every in-flight call.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shareitServerExecutor(@Value("${shareit-server.client-threads:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("shareit-client-"));
+    }
+
+    /**
+     * The JDK client reads its keep-alive settings once per process from system properties, so they are set
+     * here before the first client is built unless given on the command line.
+     */
+    @Bean
+    public HttpClient shareitServerHttpClient(ExecutorService shareitServerExecutor,
+                                              @Value("${shareit-server.connect-timeout:5s}") Duration connectTimeout,
+                                              @Value("${shareit-server.pool.idle-timeout:30s}") Duration idleTimeout,
+                                              @Value("${shareit-server.pool.max-idle:64}") int maxIdle) {
+        setDefaultProperty("jdk.httpclient.keepalive.timeout", String.valueOf(idleTimeout.toSeconds()));
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", String.valueOf(maxIdle));
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(shareitServerExecutor)
+                .build();
+    }
+
+    @Bean
+    public ServerConnectionPool serverConnectionPool(HttpClient shareitServerHttpClient, MeterRegistry meterRegistry,
+                                                     @Value("${shareit-server.pool.max-per-route:64}") int maxPerRoute,
+                                                     @Value("${shareit-server.pool.max-pending:1000}") int maxPending,
+                                                     @Value("${shareit-server.pool.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new ServerConnectionPool(shareitServerHttpClient, meterRegistry, maxPerRoute, maxPending,
+                acquireTimeout);
+    }
+
+    @Bean(initMethod = "startHealthChecks", destroyMethod = "stopHealthChecks")
+    public ServerEndpoints serverEndpoints(HttpClient shareitServerHttpClient, MeterRegistry meterRegistry,
+                                           @Value("${shareit-server.url}") String serverUrl,
+                                           @Value("${shareit-server.urls:${shareit-server.url}}") List<String> urls,
+                                           @Value("${shareit-server.health.interval:5s}") Duration healthInterval,
+                                           @Value("${shareit-server.health.timeout:2s}") Duration healthTimeout,
+                                           @Value("${shareit-server.outlier.consecutive-failures:5}") int consecutiveFailures,
+                                           @Value("${shareit-server.outlier.base-ejection:30s}") Duration baseEjection,
+                                           @Value("${shareit-server.outlier.max-ejection-percent:50}") int maxEjectionPercent) {
+        return new ServerEndpoints(serverUrl, urls, shareitServerHttpClient, meterRegistry, healthInterval,
+                healthTimeout, consecutiveFailures, baseEjection, maxEjectionPercent);
+    }
+
+    @Bean
+    public RequestCoalescer requestCoalescer(MeterRegistry meterRegistry,
+                                             @Value("${shareit-server.coalescing.enabled:true}") boolean enabled) {
+        return new RequestCoalescer(meterRegistry, enabled);
+    }
+
+    @Bean
+    public RequestHedger requestHedger(MeterRegistry meterRegistry,
+                                       @Value("${shareit-server.hedging.enabled:true}") boolean enabled,
+                                       @Value("${shareit-server.hedging.percentile:0.95}") double percentile,
+                                       @Value("${shareit-server.hedging.min-delay:10ms}") Duration minDelay,
+                                       @Value("${shareit-server.hedging.max-delay:1s}") Duration maxDelay,
+                                       @Value("${shareit-server.hedging.min-samples:100}") int minSamples,
+                                       @Value("${shareit-server.hedging.budget-percent:5}") double budgetPercent) {
+        return new RequestHedger(meterRegistry, enabled, percentile, minDelay, maxDelay, minSamples, budgetPercent);
+    }
+
+    private static void setDefaultProperty(String name, String value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, value);
+        }
+    }
+}
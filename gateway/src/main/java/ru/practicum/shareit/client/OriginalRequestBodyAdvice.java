@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Keeps the raw bytes of each JSON request body next to the object Jackson read from them, so a client
+ * forwarding that same object can send the original bytes instead of serializing it again.
+ */
+@ControllerAdvice
+public class OriginalRequestBodyAdvice extends RequestBodyAdviceAdapter {
+    private static final String BYTES_ATTRIBUTE = OriginalRequestBodyAdvice.class.getName() + ".bytes";
+    private static final String BODY_ATTRIBUTE = OriginalRequestBodyAdvice.class.getName() + ".body";
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        byte[] bytes = StreamUtils.copyToByteArray(inputMessage.getBody());
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(BYTES_ATTRIBUTE, bytes, RequestAttributes.SCOPE_REQUEST);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(bytes);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(BODY_ATTRIBUTE, body, RequestAttributes.SCOPE_REQUEST);
+        return body;
+    }
+
+    /**
+     * Returns the bytes {@code body} was read from in the current request, or null if it was built some other way.
+     */
+    @Nullable
+    public static byte[] originalBytes(Object body) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || attributes.getAttribute(BODY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != body) {
+            return null;
+        }
+        return (byte[]) attributes.getAttribute(BYTES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for idempotent server calls: while a call for a key is in flight, identical calls wait for its
+ * response instead of sending their own. Callers get their own copy of the shared future, so a caller that
+ * gives up cannot cancel the call for the others. The share of calls that were coalesced is published as
+ * {@code shareit.upstream.coalescing.ratio}.
+ * <p>
+ * The key leaves out the caller's deadline: a follower waits for the leader's call, which runs under the
+ * leader's deadline. A follower with a shorter deadline can therefore wait past it, and one with a longer
+ * deadline can fail with the leader's timeout. Both are bounded by the client's own timeout, which every
+ * deadline is capped at.
+ */
+public class RequestCoalescer {
+    private final boolean enabled;
+    private final Map<Key, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong followers = new AtomicLong();
+
+    public RequestCoalescer(MeterRegistry meterRegistry, boolean enabled) {
+        this.enabled = enabled;
+        FunctionCounter.builder("shareit.upstream.coalescing.calls", leaders, AtomicLong::get)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("shareit.upstream.coalescing.calls", followers, AtomicLong::get)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("shareit.upstream.coalescing.ratio", this, RequestCoalescer::ratio)
+                .register(meterRegistry);
+        Gauge.builder("shareit.upstream.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code call} unless an identical one is in flight. {@code variant} holds whatever else changes the
+     * response, such as a conditional request header; it may be null.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String method, URI uri, Long userId, String variant,
+                                            Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Key key = new Key(method, uri, userId, variant);
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            followers.incrementAndGet();
+            return existing.copy();
+        }
+        leaders.incrementAndGet();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, e) -> {
+            inFlight.remove(key, shared);
+            if (e == null) {
+                shared.complete(value);
+            } else {
+                shared.completeExceptionally(e);
+            }
+        });
+        return shared.copy();
+    }
+
+    private double ratio() {
+        long coalesced = followers.get();
+        long total = coalesced + leaders.get();
+        return total == 0 ? 0 : (double) coalesced / total;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Key {
+        private final String method;
+        private final URI uri;
+        private final Long userId;
+        private final String variant;
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent reads: when the first call of a route has not answered within the route's observed
+ * latency percentile, a second identical call is sent and the first good answer is used. The delay is taken
+ * from the latencies of recent first calls and bounded by {@code min-delay} and {@code max-delay}. A first call
+ * that failed or lost to its hedge counts with the time it had run, a lower bound of its latency; leaving it
+ * out would drop exactly the slow calls, and the delay would drift down with every hedge. Each route
+ * earns {@code budget-percent} of a hedge per call, so hedges stay a small share of the calls even while the
+ * server is slow everywhere. Once one call has answered the other is cancelled, which gives its
+ * {@link UpstreamGuard} permit back at once; a hedge the bulkhead has no room for is simply not sent. The JDK
+ * client cannot abort a call in flight, so the losing call still runs to the end on the server.
+ */
+public class RequestHedger {
+    private static final int SAMPLES = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_BUDGET = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int minSamples;
+    private final double budgetPerCall;
+
+    public RequestHedger(MeterRegistry meterRegistry, boolean enabled, double percentile, Duration minDelay,
+                         Duration maxDelay, int minSamples, double budgetPercent) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.minSamples = Math.min(minSamples, SAMPLES);
+        this.budgetPerCall = budgetPercent / 100;
+    }
+
+    public Route route(String name) {
+        return new Route(name);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> execute(Route route,
+                                                            Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        route.calls.incrementAndGet();
+        route.earn();
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        long startedAt = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> first = call.get();
+        result.whenComplete((response, e) -> first.cancel(false));
+        first.whenComplete((response, e) -> {
+            route.record(System.nanoTime() - startedAt);
+            settle(result, pending, response, e, false, route);
+        });
+        CompletableFuture.delayedExecutor(route.delayNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || first.isDone() || !route.spend()) {
+                return;
+            }
+            route.hedges.increment();
+            pending.incrementAndGet();
+            CompletableFuture<HttpResponse<T>> second;
+            try {
+                second = call.get();
+            } catch (RuntimeException e) {
+                second = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<HttpResponse<T>> hedge = second;
+            result.whenComplete((response, e) -> hedge.cancel(false));
+            second.whenComplete((response, e) -> settle(result, pending, response, e, true, route));
+        });
+        return result;
+    }
+
+    /**
+     * Completes {@code result} with the first answer below 500, or with the last outcome when there is none.
+     */
+    private static <T> void settle(CompletableFuture<HttpResponse<T>> result, AtomicInteger pending,
+                                   HttpResponse<T> response, Throwable e, boolean hedge, Route route) {
+        boolean last = pending.decrementAndGet() == 0;
+        boolean good = e == null && response.statusCode() < 500;
+        if (!good && !last) {
+            return;
+        }
+        boolean won = e == null ? result.complete(response) : result.completeExceptionally(e);
+        if (won && hedge && good) {
+            route.hedgeWins.increment();
+        }
+    }
+
+    public final class Route {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Counter hedges;
+        private final Counter hedgeWins;
+        private final long[] samples = new long[SAMPLES];
+        private long recorded;
+        private long delayNanos;
+        private double budget = MAX_BUDGET;
+        private long denied;
+
+        private Route(String name) {
+            delayNanos = maxDelayNanos;
+            FunctionCounter.builder("shareit.upstream.hedging.calls", calls, AtomicInteger::get)
+                    .tag("route", name)
+                    .register(meterRegistry);
+            hedges = Counter.builder("shareit.upstream.hedging.hedges")
+                    .tag("route", name)
+                    .tag("result", "sent")
+                    .register(meterRegistry);
+            hedgeWins = Counter.builder("shareit.upstream.hedging.hedges")
+                    .tag("route", name)
+                    .tag("result", "won")
+                    .register(meterRegistry);
+            FunctionCounter.builder("shareit.upstream.hedging.hedges", this, route -> route.read(() -> route.denied))
+                    .tag("route", name)
+                    .tag("result", "over-budget")
+                    .register(meterRegistry);
+            Gauge.builder("shareit.upstream.hedging.rate", this,
+                            route -> route.calls.get() == 0 ? 0 : route.hedges.count() / route.calls.get())
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.upstream.hedging.delay", this, route -> route.read(() -> route.delayNanos) / 1e6)
+                    .tag("route", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Runs {@code call}, and once more if the first run is slower than the route's hedging delay.
+         */
+        public <T> CompletableFuture<HttpResponse<T>> execute(Supplier<CompletableFuture<HttpResponse<T>>> call) {
+            return RequestHedger.this.execute(this, call);
+        }
+
+        private synchronized long delayNanos() {
+            return delayNanos;
+        }
+
+        private synchronized void earn() {
+            budget = Math.min(MAX_BUDGET, budget + budgetPerCall);
+        }
+
+        private synchronized boolean spend() {
+            if (budget < 1) {
+                denied++;
+                return false;
+            }
+            budget--;
+            return true;
+        }
+
+        private synchronized void record(long latencyNanos) {
+            samples[(int) (recorded % SAMPLES)] = latencyNanos;
+            recorded++;
+            if (recorded >= minSamples && recorded % RECOMPUTE_EVERY == 0) {
+                long[] window = Arrays.copyOf(samples, (int) Math.min(recorded, SAMPLES));
+                Arrays.sort(window);
+                long observed = window[Math.min(window.length - 1, (int) (percentile * window.length))];
+                delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+            }
+        }
+
+        private synchronized double read(LongSupplier value) {
+            return value.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Shared gate in front of the keep-alive connections of one {@link HttpClient}. Over HTTP/1.1 every in-flight
+ * call holds its own connection, so capping leases per route caps connections per route. Callers over the cap
+ * wait in a bounded queue without holding a thread, up to the acquire timeout. Waiters are queued per flow (the
+ * calling user) and freed connections go to the flows in turn, so one user with many queued calls cannot starve
+ * the others. Leased, pending and maximum connections and the lease wait time are published per route.
+ */
+public class ServerConnectionPool {
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    private final HttpClient http;
+    private final MeterRegistry meterRegistry;
+    private final int maxPerRoute;
+    private final int maxPending;
+    private final Duration acquireTimeout;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public ServerConnectionPool(HttpClient http, MeterRegistry meterRegistry, int maxPerRoute, int maxPending,
+                                Duration acquireTimeout) {
+        this.http = http;
+        this.meterRegistry = meterRegistry;
+        this.maxPerRoute = maxPerRoute;
+        this.maxPending = maxPending;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public HttpClient getHttpClient() {
+        return http;
+    }
+
+    /**
+     * Sends a request whose body handler reads the whole response; the lease ends when the response completes.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return acquire(request.uri(), request.headers().firstValue(USER_ID).orElse(""))
+                .thenCompose(lease -> http.sendAsync(request, handler)
+                .whenComplete((response, e) -> lease.close()));
+    }
+
+    /**
+     * Leases a connection slot for the route of {@code uri}, queued under {@code flow} while the route is full.
+     * The caller must close the lease when done with it.
+     */
+    public CompletableFuture<Lease> acquire(URI uri, String flow) {
+        return routes.computeIfAbsent(routeOf(uri), Route::new).acquire(flow);
+    }
+
+    private static String routeOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * A leased connection slot; closing it more than once has no further effect.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Route route;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(Route route) {
+            this.route = route;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                route.release();
+            }
+        }
+    }
+
+    private final class Route {
+        private final String name;
+        private final LinkedHashMap<String, ArrayDeque<Waiter>> flows = new LinkedHashMap<>();
+        private final Timer waitTimer;
+        private final Counter rejectedFull;
+        private final Counter rejectedTimeout;
+        private int leased;
+        private int pending;
+
+        private Route(String name) {
+            this.name = name;
+            Gauge.builder("shareit.upstream.pool.leased", this, route -> route.read(() -> route.leased))
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.upstream.pool.pending", this, route -> route.read(() -> route.pending))
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.upstream.pool.max", this, route -> maxPerRoute)
+                    .tag("route", name)
+                    .register(meterRegistry);
+            waitTimer = Timer.builder("shareit.upstream.pool.wait")
+                    .tag("route", name)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            rejectedFull = Counter.builder("shareit.upstream.pool.rejected")
+                    .tag("route", name)
+                    .tag("reason", "queue-full")
+                    .register(meterRegistry);
+            rejectedTimeout = Counter.builder("shareit.upstream.pool.rejected")
+                    .tag("route", name)
+                    .tag("reason", "timeout")
+                    .register(meterRegistry);
+        }
+
+        private CompletableFuture<Lease> acquire(String flow) {
+            Waiter waiter;
+            synchronized (this) {
+                if (leased < maxPerRoute) {
+                    leased++;
+                    waitTimer.record(0, TimeUnit.NANOSECONDS);
+                    return CompletableFuture.completedFuture(new Lease(this));
+                }
+                if (pending >= maxPending) {
+                    rejectedFull.increment();
+                    return CompletableFuture.failedFuture(
+                            new UpstreamUnavailable("Too many calls waiting for a connection to " + name));
+                }
+                waiter = new Waiter(flow);
+                flows.computeIfAbsent(flow, f -> new ArrayDeque<>()).add(waiter);
+                pending++;
+            }
+            return waiter.future
+                    .orTimeout(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .handle((lease, e) -> {
+                        if (e == null) {
+                            return lease;
+                        }
+                        forget(waiter);
+                        if (e instanceof TimeoutException) {
+                            rejectedTimeout.increment();
+                            throw new UpstreamUnavailable("No connection to " + name + " within " + acquireTimeout);
+                        }
+                        throw new CompletionException(e);
+                    });
+        }
+
+        private void release() {
+            Waiter next;
+            synchronized (this) {
+                next = nextWaiter();
+                if (next == null) {
+                    leased--;
+                    return;
+                }
+            }
+            if (next.future.complete(new Lease(this))) {
+                waitTimer.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+            } else {
+                release();
+            }
+        }
+
+        /**
+         * Takes the head of the first flow in line and moves that flow to the back of the line.
+         */
+        private Waiter nextWaiter() {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> iterator = flows.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, ArrayDeque<Waiter>> first = iterator.next();
+            iterator.remove();
+            Waiter waiter = first.getValue().poll();
+            if (!first.getValue().isEmpty()) {
+                flows.put(first.getKey(), first.getValue());
+            }
+            pending--;
+            return waiter;
+        }
+
+        private synchronized void forget(Waiter waiter) {
+            ArrayDeque<Waiter> queue = flows.get(waiter.flow);
+            if (queue != null && queue.remove(waiter)) {
+                pending--;
+                if (queue.isEmpty()) {
+                    flows.remove(waiter.flow);
+                }
+            }
+        }
+
+        private synchronized double read(IntSupplier value) {
+            return value.getAsInt();
+        }
+    }
+
+    private static final class Waiter {
+        private final String flow;
+        private final CompletableFuture<Lease> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        private Waiter(String flow) {
+            this.flow = flow;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads server calls over the configured server replicas. Clients build their URIs against the logical
+ * {@code shareit-server.url}; each call is then sent to the replica picked by power of two choices: the one
+ * with fewer calls outstanding of two random available replicas.
+ * <p>
+ * A replica is unavailable while its {@code /actuator/health} check fails, or while it is ejected after
+ * {@code consecutive-failures} failed calls in a row. Ejection lasts {@code base-ejection} times the number of
+ * ejections since the replica last answered a call, and never takes more than {@code max-ejection-percent} of
+ * the replicas out. When no replica is available, calls go to all of them rather than fail.
+ */
+@Slf4j
+public class ServerEndpoints {
+    private static final String HEALTH_PATH = "/actuator/health";
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final String logicalBase;
+    private final List<Endpoint> endpoints;
+    private final HttpClient http;
+    private final Duration healthInterval;
+    private final Duration healthTimeout;
+    private final int consecutiveFailures;
+    private final long baseEjectionNanos;
+    private final int maxEjected;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("shareit-health-"));
+
+    public ServerEndpoints(String logicalBase, List<String> urls, HttpClient http, MeterRegistry meterRegistry,
+                           Duration healthInterval, Duration healthTimeout, int consecutiveFailures,
+                           Duration baseEjection, int maxEjectionPercent) {
+        this.logicalBase = stripTrailingSlash(logicalBase);
+        this.endpoints = urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> new Endpoint(stripTrailingSlash(url), meterRegistry))
+                .collect(Collectors.toUnmodifiableList());
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("No server endpoints configured");
+        }
+        this.http = http;
+        this.healthInterval = healthInterval;
+        this.healthTimeout = healthTimeout;
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjected = endpoints.size() * maxEjectionPercent / 100;
+    }
+
+    public void startHealthChecks() {
+        if (endpoints.size() > 1) {
+            scheduler.scheduleWithFixedDelay(this::checkHealth, 0, healthInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stopHealthChecks() {
+        scheduler.shutdownNow();
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> send(URI logicalUri,
+                                                       Function<URI, CompletableFuture<HttpResponse<T>>> call) {
+        return send(logicalUri, call, new Attempts());
+    }
+
+    /**
+     * Sends a call to a picked replica, preferring replicas not yet in {@code attempts}. {@code call} gets the
+     * replica's URI for {@code logicalUri}. A call whose connection was refused is tried once more on another
+     * replica, since the server never saw it.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(URI logicalUri,
+                                                       Function<URI, CompletableFuture<HttpResponse<T>>> call,
+                                                       Attempts attempts) {
+        return start(attempts).run(logicalUri, call).handle((response, e) -> {
+            Throwable cause = unwrap(e);
+            if (cause instanceof ConnectException && endpoints.size() > 1) {
+                return start(attempts).run(logicalUri, call);
+            }
+            return cause == null
+                    ? CompletableFuture.completedFuture(response)
+                    : CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Picks a replica for one call; the caller must complete the returned call once it is over.
+     */
+    public Call start() {
+        return start(new Attempts());
+    }
+
+    private Call start(Attempts attempts) {
+        long now = System.nanoTime();
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!attempts.tried.contains(endpoint) && endpoint.isAvailable(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (Endpoint endpoint : endpoints) {
+                if (!attempts.tried.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(endpoints);
+        }
+        Endpoint picked = candidates.get(0);
+        if (candidates.size() > 1) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int i = random.nextInt(candidates.size());
+            int j = random.nextInt(candidates.size() - 1);
+            if (j >= i) {
+                j++;
+            }
+            Endpoint a = candidates.get(i);
+            Endpoint b = candidates.get(j);
+            picked = b.outstanding.get() < a.outstanding.get() ? b : a;
+        }
+        picked.outstanding.incrementAndGet();
+        attempts.tried.add(picked);
+        return new Call(picked, attempts.callerDeadline);
+    }
+
+    private void checkHealth() {
+        for (Endpoint endpoint : endpoints) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.base + HEALTH_PATH))
+                    .timeout(healthTimeout)
+                    .GET()
+                    .build();
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> endpoint.setHealthy(e == null && response.statusCode() == 200));
+        }
+    }
+
+    private synchronized boolean tryEject(Endpoint endpoint, long now) {
+        long ejected = endpoints.stream().filter(other -> other.isEjected(now)).count();
+        if (ejected >= maxEjected) {
+            return false;
+        }
+        endpoint.eject(now);
+        return true;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Replicas already tried for one logical call, so that a retry or a hedge goes elsewhere when it can.
+     */
+    public static final class Attempts {
+        private final List<Endpoint> tried = new CopyOnWriteArrayList<>();
+        private final boolean callerDeadline;
+
+        public Attempts() {
+            this(false);
+        }
+
+        /**
+         * @param callerDeadline whether the call runs on a deadline the caller set shorter than the client's
+         *                       timeout; running out of it is then not held against the replica
+         */
+        public Attempts(boolean callerDeadline) {
+            this.callerDeadline = callerDeadline;
+        }
+    }
+
+    /**
+     * One call to a picked replica; completing it more than once has no further effect.
+     */
+    public final class Call {
+        private final Endpoint endpoint;
+        private final boolean callerDeadline;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Call(Endpoint endpoint, boolean callerDeadline) {
+            this.endpoint = endpoint;
+            this.callerDeadline = callerDeadline;
+        }
+
+        public URI resolve(URI logicalUri) {
+            String uri = logicalUri.toString();
+            return uri.startsWith(logicalBase) ? URI.create(endpoint.base + uri.substring(logicalBase.length())) : logicalUri;
+        }
+
+        /**
+         * Ends a call that never reached the replica, without counting it for or against the replica.
+         */
+        public void release() {
+            if (completed.compareAndSet(false, true)) {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+
+        /**
+         * @param answered whether the replica answered the call without a server error
+         */
+        public void complete(boolean answered) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            endpoint.outstanding.decrementAndGet();
+            if (answered) {
+                endpoint.onAnswered();
+            } else if (endpoint.onFailed() >= consecutiveFailures) {
+                long now = System.nanoTime();
+                if (!endpoint.isEjected(now) && tryEject(endpoint, now)) {
+                    log.warn("Ejected server endpoint {} after {} failed calls", endpoint.base, consecutiveFailures);
+                }
+            }
+        }
+
+        private <T> CompletableFuture<HttpResponse<T>> run(URI logicalUri,
+                                                            Function<URI, CompletableFuture<HttpResponse<T>>> call) {
+            CompletableFuture<HttpResponse<T>> result;
+            try {
+                result = call.apply(resolve(logicalUri));
+            } catch (RuntimeException e) {
+                release();
+                return CompletableFuture.failedFuture(e);
+            }
+            return result.whenComplete((response, e) -> {
+                Throwable cause = unwrap(e);
+                if (cause instanceof UpstreamUnavailable
+                        || callerDeadline && UpstreamGuard.isDeadlineExceeded(response, cause)) {
+                    release();
+                } else {
+                    complete(cause == null ? response.statusCode() < 500 : !(cause instanceof IOException));
+                }
+            });
+        }
+    }
+
+    private final class Endpoint {
+        private final String base;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final Counter ejections;
+        private volatile boolean healthy = true;
+        private int failures;
+        private int timesEjected;
+        private long ejectedUntil;
+
+        private Endpoint(String base, MeterRegistry meterRegistry) {
+            this.base = base;
+            Gauge.builder("shareit.upstream.endpoint.outstanding", outstanding, AtomicInteger::get)
+                    .tag("endpoint", base)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.upstream.endpoint.available", this,
+                            endpoint -> endpoint.isAvailable(System.nanoTime()) ? 1 : 0)
+                    .tag("endpoint", base)
+                    .register(meterRegistry);
+            ejections = Counter.builder("shareit.upstream.endpoint.ejections")
+                    .tag("endpoint", base)
+                    .register(meterRegistry);
+        }
+
+        private boolean isAvailable(long now) {
+            return healthy && !isEjected(now);
+        }
+
+        private synchronized boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        private void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                log.warn("Server endpoint {} is {}", base, healthy ? "healthy again" : "unhealthy");
+            }
+            this.healthy = healthy;
+        }
+
+        private synchronized void onAnswered() {
+            failures = 0;
+            if (!isEjected(System.nanoTime())) {
+                timesEjected = 0;
+            }
+        }
+
+        private synchronized int onFailed() {
+            return ++failures;
+        }
+
+        private synchronized void eject(long now) {
+            timesEjected = Math.min(timesEjected + 1, MAX_EJECTION_MULTIPLIER);
+            ejectedUntil = now + baseEjectionNanos * timesEjected;
+            failures = 0;
+            ejections.increment();
+        }
+    }
+}
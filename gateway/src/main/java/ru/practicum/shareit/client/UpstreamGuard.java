@@ -0,0 +1,179 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
+
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the server calls of one client: a bulkhead caps its calls in flight, its own timeout bounds each
+ * call, and a {@link CircuitBreaker} refuses calls while the server keeps failing them. Calls over the
+ * bulkhead or refused by the breaker fail at once with {@link UpstreamUnavailable}, so a degraded endpoint
+ * cannot take the connections and threads the other clients need.
+ */
+public class UpstreamGuard {
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration timeout;
+    private final CircuitBreaker breaker;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter bulkheadRejected;
+    private final Counter breakerRejected;
+
+    public UpstreamGuard(String name, int maxConcurrent, Duration timeout, CircuitBreaker breaker,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.timeout = timeout;
+        this.breaker = breaker;
+        Gauge.builder("shareit.upstream.bulkhead.active", active, AtomicInteger::get)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("shareit.upstream.bulkhead.max", this, guard -> guard.maxConcurrent)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("shareit.upstream.breaker.state", breaker, b -> b.getState().ordinal())
+                .tag("client", name)
+                .register(meterRegistry);
+        bulkheadRejected = Counter.builder("shareit.upstream.bulkhead.rejected")
+                .tag("client", name)
+                .register(meterRegistry);
+        breakerRejected = Counter.builder("shareit.upstream.breaker.rejected")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Timeout to put on this client's requests.
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> call(Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        return call(call, false);
+    }
+
+    /**
+     * Runs {@code call} inside the bulkhead and breaker; responses with a 5xx status count as failures. The
+     * returned future fails with {@link HttpTimeoutException} once the call has taken longer than the timeout,
+     * which also counts as a failure. Cancelling it gives the permit back without a verdict for the breaker.
+     * Either way the permit is freed at once, even though the call itself may still be running.
+     * <p>
+     * {@code callerDeadline} marks a call sent with a deadline the caller set shorter than this client's
+     * timeout. Running out of that deadline, as a request timeout or as the server's 504, says nothing about
+     * the server, so it also gives the permit back without a verdict; only this guard's own timeout counts.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> call(Supplier<CompletableFuture<HttpResponse<T>>> call,
+                                                       boolean callerDeadline) {
+        Permit permit;
+        try {
+            permit = enter();
+        } catch (UpstreamUnavailable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<HttpResponse<T>> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            permit.complete(false);
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<HttpResponse<T>> guarded = new CompletableFuture<>();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        CompletableFuture<Void> timer = new CompletableFuture<Void>()
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        timer.whenComplete((ignored, e) -> {
+            if (e != null) {
+                timedOut.set(true);
+                guarded.completeExceptionally(new HttpTimeoutException("No answer from the server within " + timeout));
+            }
+        });
+        result.whenComplete((response, e) -> {
+            if (e == null) {
+                guarded.complete(response);
+            } else {
+                guarded.completeExceptionally(e);
+            }
+        });
+        guarded.whenComplete((response, e) -> {
+            timer.complete(null);
+            if (e instanceof CancellationException
+                    || callerDeadline && !timedOut.get() && isDeadlineExceeded(response, e)) {
+                permit.release();
+            } else {
+                permit.complete(e == null && response.statusCode() < 500);
+            }
+            result.cancel(false);
+        });
+        return guarded;
+    }
+
+    /**
+     * Whether a call ended because its deadline ran out: the request timed out at the gateway, or the server
+     * gave up on it and answered 504.
+     */
+    static boolean isDeadlineExceeded(HttpResponse<?> response, Throwable e) {
+        if (e == null) {
+            return response.statusCode() == HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof HttpTimeoutException;
+    }
+
+    /**
+     * Admits one call; the caller must complete the returned permit once the call is over.
+     */
+    public Permit enter() {
+        long epoch = breaker.tryAcquire();
+        if (epoch < 0) {
+            breakerRejected.increment();
+            throw new UpstreamUnavailable("Circuit open for " + name + " calls to the server");
+        }
+        if (active.incrementAndGet() > maxConcurrent) {
+            active.decrementAndGet();
+            breaker.release(epoch);
+            bulkheadRejected.increment();
+            throw new UpstreamUnavailable("Too many concurrent " + name + " calls to the server");
+        }
+        return new Permit(epoch);
+    }
+
+    public final class Permit {
+        private final long epoch;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(long epoch) {
+            this.epoch = epoch;
+        }
+
+        public void complete(boolean success) {
+            if (completed.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                breaker.onResult(epoch, success);
+            }
+        }
+
+        /**
+         * Gives the permit back without reporting an outcome, for a call abandoned before it answered.
+         */
+        public void release() {
+            if (completed.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                breaker.release(epoch);
+            }
+        }
+    }
+}
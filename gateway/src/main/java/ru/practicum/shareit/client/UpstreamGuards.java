@@ -0,0 +1,37 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Builds the {@link UpstreamGuard} of each client from {@code shareit-server.clients.<name>.*}, falling back
+ * to the shared {@code shareit-server.*} settings.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamGuards {
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamGuard forClient(String name) {
+        CircuitBreaker breaker = new CircuitBreaker(name,
+                setting(name, "breaker.window", Integer.class, 20),
+                setting(name, "breaker.minimum-calls", Integer.class, 10),
+                setting(name, "breaker.failure-rate", Double.class, 0.5),
+                setting(name, "breaker.open-duration", Duration.class, Duration.ofSeconds(10)).toNanos(),
+                setting(name, "breaker.half-open-calls", Integer.class, 3));
+        return new UpstreamGuard(name,
+                setting(name, "max-concurrent", Integer.class, 32),
+                setting(name, "timeout", Duration.class, Duration.ofSeconds(30)),
+                breaker, meterRegistry);
+    }
+
+    private <T> T setting(String client, String key, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("shareit-server." + key, type, defaultValue);
+        return environment.getProperty("shareit-server.clients." + client + "." + key, type, shared);
+    }
+}
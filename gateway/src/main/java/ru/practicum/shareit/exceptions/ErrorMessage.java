@@ -0,0 +1,10 @@
+package ru.practicum.shareit.exceptions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ErrorMessage {
+    private final String message;
+}
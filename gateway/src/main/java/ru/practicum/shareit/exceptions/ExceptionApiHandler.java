@@ -0,0 +1,48 @@
+package ru.practicum.shareit.exceptions;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+
+@RestControllerAdvice
+@Slf4j
+public class ExceptionApiHandler {
+    @ExceptionHandler(UpstreamUnavailable.class)
+    public ResponseEntity<ErrorMessage> upstreamUnavailable(UpstreamUnavailable e) {
+        log.warn("upstream unavailable: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorMessage(e.getMessage()));
+    }
+
+    @ExceptionHandler(TooManyRequests.class)
+    public ResponseEntity<ErrorMessage> tooManyRequests(TooManyRequests e) {
+        log.info("rate limited: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorMessage(e.getMessage()));
+    }
+
+    @ExceptionHandler(HttpTimeoutException.class)
+    public ResponseEntity<ErrorMessage> upstreamTimeout(HttpTimeoutException e) {
+        log.warn("upstream timeout: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new ErrorMessage("Server did not answer in time"));
+    }
+
+    @ExceptionHandler(ConnectException.class)
+    public ResponseEntity<ErrorMessage> upstreamRefused(ConnectException e) {
+        log.warn("upstream connection failed: " + e);
+        return ResponseEntity
+                .status(HttpStatus.BAD_GATEWAY)
+                .body(new ErrorMessage("Server is unreachable"));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequests extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequests(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
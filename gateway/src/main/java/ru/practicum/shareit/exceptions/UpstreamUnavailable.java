@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class UpstreamUnavailable extends RuntimeException {
+    public UpstreamUnavailable(String message) {
+        super(message);
+    }
+}
@@ -1,37 +1,70 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.RequestHedger;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.ServerEndpoints;
+import ru.practicum.shareit.client.UpstreamGuard;
+import ru.practicum.shareit.client.UpstreamGuards;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    /**
+     * Streams a 2xx export as it arrives; an error body is read whole first, so it can be answered with its status.
+     */
+    private static final HttpResponse.BodyHandler<InputStream> EXPORT_BODY = info ->
+            HttpStatus.valueOf(info.statusCode()).is2xxSuccessful()
+                    ? HttpResponse.BodySubscribers.ofInputStream()
+                    : HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                    ByteArrayInputStream::new);
+
+    private final RequestHedger.Route itemById;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, ServerConnectionPool pool,
+                      ServerEndpoints endpoints, UpstreamGuards guards, RequestCoalescer coalescer,
+                      RequestHedger hedger, ObjectMapper objectMapper, GatewayResponseCache cache) {
+        super(pool, endpoints, guards.forClient("items"), coalescer, serverUrl + API_PREFIX,
+                objectMapper, cache, "/items");
+        itemById = hedger.route("items/{id}");
     }
 
-    public ResponseEntity<Object> getItemDtoById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> getItemDtoById(long itemId, long userId) {
+        return getCached("/" + itemId, userId, null, itemById);
     }
 
-    public ResponseEntity<Object> getItems(long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getItems(long userId, Integer from, Integer size) {
         String path = "";
         Map<String, Object> parameters = null;
         if (from != null && size != null) {
@@ -44,26 +77,186 @@ public class ItemClient extends BaseClient {
         return get(path, userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItemByText(String text) {
-        Map<String, Object> parameters = Map.of(
-                "text", text
-        );
-        return get("/search?text={text}", null, parameters);
+    public CompletableFuture<ResponseEntity<byte[]>> searchItemByText(String text, Integer from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        String path = "/search?text={text}";
+        if (from != null) {
+            parameters.put("from", from);
+            path += "&from={from}";
+        }
+        if (size != null) {
+            parameters.put("size", size);
+            path += "&size={size}";
+        }
+        return getCached(path, null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> suggestItemNames(String prefix, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("prefix", prefix);
+        String path = "/suggest?prefix={prefix}";
+        if (size != null) {
+            parameters.put("size", size);
+            path += "&size={size}";
+        }
+        return get(path, null, parameters);
+    }
+
+    /**
+     * Sends the ndjson export request and answers once the server's status is known. A 2xx body is copied to
+     * the caller as it arrives, without buffering it whole; any other status is passed through with the
+     * server's error body. Outcomes are counted as for the other calls: a 5xx or a failure to reach or read
+     * from the server counts against it, a 4xx does not, and a caller that leaves mid-copy counts neither way.
+     * The connection lease, the endpoint call and the bulkhead permit are held until the body has been copied;
+     * if the body is not picked up within the guard's timeout, they are given back without a verdict.
+     */
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportItemsByText(String text) {
+        URI uri = uri("/search/export?text={text}", Map.of("text", text));
+        UpstreamGuard.Permit permit;
+        try {
+            permit = guard.enter();
+        } catch (UpstreamUnavailable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Export export = new Export(endpoints.start(), permit);
+        HttpRequest request = HttpRequest.newBuilder(export.call.resolve(uri))
+                .timeout(guard.getTimeout())
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE)
+                .GET()
+                .build();
+        return pool.acquire(request.uri(), "")
+                .thenCompose(lease -> {
+                    export.lease = lease;
+                    return pool.getHttpClient().sendAsync(request, EXPORT_BODY);
+                })
+                .handle((response, e) -> {
+                    if (e != null) {
+                        export.fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                    }
+                    return toExportResponse(response, export);
+                });
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, long userId) {
+    private ResponseEntity<StreamingResponseBody> toExportResponse(HttpResponse<InputStream> response, Export export) {
+        if (!HttpStatus.valueOf(response.statusCode()).is2xxSuccessful()) {
+            byte[] error;
+            try (InputStream body = response.body()) {
+                error = body.readAllBytes();
+            } catch (IOException e) {
+                export.complete(false);
+                throw new UncheckedIOException(e);
+            }
+            export.complete(response.statusCode() < 500);
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.statusCode());
+            response.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(type ->
+                    responseBuilder.header(HttpHeaders.CONTENT_TYPE, type));
+            return responseBuilder.body(out -> out.write(error));
+        }
+        export.body = response.body();
+        CompletableFuture.delayedExecutor(guard.getTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .execute(export::abandonUnlessStarted);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(export::copyTo);
+    }
+    public CompletableFuture<ResponseEntity<byte[]>> createItem(ItemDto itemDto, long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> createComment(CommentDto commentDto, long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> createComment(CommentDto commentDto, long itemId, long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, long itemId, long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> updateItem(ItemDto itemDto, long itemId, long userId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> deleteItem(long id) {
         return delete("/" + id);
     }
+
+    /**
+     * The resources held by one export, given back exactly once: with a verdict when the server's part is
+     * known, or without one when the caller is gone or never picked the body up.
+     */
+    private static final class Export {
+        private final ServerEndpoints.Call call;
+        private final UpstreamGuard.Permit permit;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile ServerConnectionPool.Lease lease;
+        private volatile InputStream body;
+
+        private Export(ServerEndpoints.Call call, UpstreamGuard.Permit permit) {
+            this.call = call;
+            this.permit = permit;
+        }
+
+        private void copyTo(OutputStream out) throws IOException {
+            if (!started.compareAndSet(false, true)) {
+                throw new IOException("Export body was abandoned before it was copied");
+            }
+            try (InputStream in = body) {
+                byte[] buffer = new byte[8192];
+                while (true) {
+                    int read;
+                    try {
+                        read = in.read(buffer);
+                    } catch (IOException e) {
+                        complete(false);
+                        throw e;
+                    }
+                    if (read < 0) {
+                        break;
+                    }
+                    out.write(buffer, 0, read);
+                }
+                complete(true);
+            } finally {
+                release();
+            }
+        }
+
+        private void abandonUnlessStarted() {
+            if (started.compareAndSet(false, true)) {
+                try {
+                    body.close();
+                } catch (IOException ignored) {
+                    // The connection is being dropped anyway.
+                } finally {
+                    release();
+                }
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (cause instanceof UpstreamUnavailable) {
+                release();
+            } else {
+                closeLease();
+                call.complete(!(cause instanceof IOException));
+                permit.complete(false);
+            }
+        }
+
+        private void complete(boolean success) {
+            closeLease();
+            call.complete(success);
+            permit.complete(success);
+        }
+
+        private void release() {
+            closeLease();
+            call.release();
+            permit.release();
+        }
+
+        private void closeLease() {
+            ServerConnectionPool.Lease lease = this.lease;
+            if (lease != null) {
+                lease.close();
+            }
+        }
+    }
 }
@@ -1,14 +1,21 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.ratelimit.RateLimitCost;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -20,46 +27,62 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable long itemId,
+    public CompletableFuture<ResponseEntity<byte[]>> getItemById(@PathVariable long itemId,
                                               @RequestHeader(value = USER_ID) long userId) {
         return itemClient.getItemDtoById(itemId, userId);
     }
 
+    @RateLimitCost(value = 3, unpaged = 10)
     @GetMapping()
-    public ResponseEntity<Object> getItems(@RequestHeader(value = USER_ID) long userId,
+    public CompletableFuture<ResponseEntity<byte[]>> getItems(@RequestHeader(value = USER_ID) long userId,
                                   @RequestParam(name = "from", required = false) Integer from,
                                   @RequestParam(name = "size", required = false) Integer size) {
         return itemClient.getItems(userId, from, size);
     }
 
+    @RateLimitCost(value = 3, unpaged = 10)
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItemsByText(@RequestParam String text) {
-        return itemClient.searchItemByText(text);
+    public CompletableFuture<ResponseEntity<byte[]>> searchItemsByText(@RequestParam String text,
+                                                    @PositiveOrZero @RequestParam(name = "from", required = false) Integer from,
+                                                    @Positive @Max(100) @RequestParam(name = "size", required = false) Integer size) {
+        return itemClient.searchItemByText(text, from, size);
+    }
+
+    @RateLimitCost(20)
+    @GetMapping(value = "/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportItemsByText(@RequestParam String text) {
+        return itemClient.exportItemsByText(text);
+    }
+
+    @GetMapping("/suggest")
+    public CompletableFuture<ResponseEntity<byte[]>> suggestItemNames(@RequestParam String prefix,
+                                                   @Positive @Max(10) @RequestParam(name = "size", required = false) Integer size) {
+        return itemClient.suggestItemNames(prefix, size);
     }
 
 
     @PostMapping()
-    public ResponseEntity<Object> createItem(@RequestHeader(value = USER_ID) long userId,
+    public CompletableFuture<ResponseEntity<byte[]>> createItem(@RequestHeader(value = USER_ID) long userId,
                               @Valid @RequestBody ItemDto itemDto) {
         return itemClient.createItem(itemDto, userId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestBody CommentDto commentDto,
+    public CompletableFuture<ResponseEntity<byte[]>> createComment(@RequestBody CommentDto commentDto,
                                     @PathVariable long itemId,
                                     @RequestHeader(value = USER_ID) long userId) {
         return itemClient.createComment(commentDto, itemId, userId);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@PathVariable long itemId,
+    public CompletableFuture<ResponseEntity<byte[]>> updateItem(@PathVariable long itemId,
                               @RequestBody ItemDto itemDto,
                               @RequestHeader(value = USER_ID) long userId) {
         return itemClient.updateItem(itemDto, itemId, userId);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteItem(@PathVariable long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> deleteItem(@PathVariable long id) {
         return itemClient.deleteItem(id);
     }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tokens a call to the annotated endpoint takes from the caller's bucket; endpoints without it cost one.
+ * {@code unpaged} applies instead when a list endpoint is called without {@code size} or {@code cursor}
+ * and the server has to return every row.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimitCost {
+    int value();
+
+    int unpaged() default 0;
+}
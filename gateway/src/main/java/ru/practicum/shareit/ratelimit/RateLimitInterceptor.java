@@ -0,0 +1,48 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exceptions.TooManyRequests;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges every call to its caller's bucket before it is forwarded: the user id header when present,
+ * otherwise the client address.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        String userId = request.getHeader(USER_ID);
+        String caller = userId != null ? "user:" + userId.trim() : "addr:" + request.getRemoteAddr();
+        long waitNanos = rateLimiter.tryAcquire(caller, costOf(request, (HandlerMethod) handler));
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new TooManyRequests("Rate limit exceeded, retry in " + retryAfter + "s", retryAfter);
+        }
+        return true;
+    }
+
+    private static int costOf(HttpServletRequest request, HandlerMethod handler) {
+        RateLimitCost cost = handler.getMethodAnnotation(RateLimitCost.class);
+        if (cost == null) {
+            return 1;
+        }
+        boolean unpaged = request.getParameter("size") == null && request.getParameter("cursor") == null;
+        return unpaged && cost.unpaged() > 0 ? cost.unpaged() : cost.value();
+    }
+}
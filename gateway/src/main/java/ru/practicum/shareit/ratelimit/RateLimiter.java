@@ -0,0 +1,119 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per caller. Buckets live in a fixed number of stripes, each guarded by its own lock, so callers
+ * only contend with the few others that hash to the same stripe. A stripe keeps at most its share of
+ * {@code max-callers} buckets and drops the least recently used one to make room for a new caller; that bucket
+ * has had the longest time to refill, so forgetting it rarely gives anyone tokens they did not have.
+ */
+@Component
+public class RateLimiter {
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxBucketsPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier clock;
+    private final Counter allowed;
+    private final Counter rejected;
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${shareit-gateway.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${shareit-gateway.rate-limit.capacity:60}") int capacity,
+                       @Value("${shareit-gateway.rate-limit.refill-per-second:20}") double refillPerSecond,
+                       @Value("${shareit-gateway.rate-limit.max-callers:100000}") int maxCallers) {
+        this(meterRegistry, enabled, capacity, refillPerSecond, maxCallers, System::nanoTime);
+    }
+
+    RateLimiter(MeterRegistry meterRegistry, boolean enabled, int capacity, double refillPerSecond, int maxCallers,
+                LongSupplier clock) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxBucketsPerStripe = Math.max(1, maxCallers / STRIPES);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        allowed = Counter.builder("shareit.gateway.rate-limit.requests")
+                .tag("result", "allowed")
+                .register(meterRegistry);
+        rejected = Counter.builder("shareit.gateway.rate-limit.requests")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes {@code cost} tokens from the caller's bucket. A cost above the capacity is charged as the capacity,
+     * so an expensive call is rate limited instead of never allowed.
+     *
+     * @return 0 when the call may proceed, otherwise the nanoseconds until the bucket holds enough tokens
+     */
+    public long tryAcquire(String caller, int cost) {
+        if (!enabled) {
+            return 0;
+        }
+        double tokens = Math.min(cost, capacity);
+        Stripe stripe = stripes[(caller.hashCode() & Integer.MAX_VALUE) % STRIPES];
+        long waitNanos;
+        synchronized (stripe) {
+            long now = clock.getAsLong();
+            Bucket bucket = stripe.buckets.get(caller);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxBucketsPerStripe) {
+                    evictLeastRecentlyUsed(stripe);
+                }
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(caller, bucket);
+            }
+            refill(bucket, now);
+            if (bucket.tokens >= tokens) {
+                bucket.tokens -= tokens;
+                waitNanos = 0;
+            } else {
+                waitNanos = (long) Math.ceil((tokens - bucket.tokens) / tokensPerNano);
+            }
+        }
+        (waitNanos == 0 ? allowed : rejected).increment();
+        return waitNanos;
+    }
+
+    private void refill(Bucket bucket, long now) {
+        bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+        bucket.refilledAt = now;
+    }
+
+    private void evictLeastRecentlyUsed(Stripe stripe) {
+        Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    private static final class Stripe {
+        private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+}
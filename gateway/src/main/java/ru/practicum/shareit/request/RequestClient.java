@@ -1,37 +1,38 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.ServerEndpoints;
+import ru.practicum.shareit.client.UpstreamGuards;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, ServerConnectionPool pool,
+                         ServerEndpoints endpoints, UpstreamGuards guards, RequestCoalescer coalescer,
+                         ObjectMapper objectMapper) {
+        super(pool, endpoints, guards.forClient("requests"), coalescer, serverUrl + API_PREFIX,
+                objectMapper);
     }
 
-    public ResponseEntity<Object> getRequestById(long requestId, long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getRequestById(long requestId, long userId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getUserRequests(long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserRequests(long userId, Integer from, Integer size) {
         StringBuilder pathBuilder = new StringBuilder("/all");
         Map<String, Object> parameters = new HashMap<>();
         if (from != null && size != null) {
@@ -43,11 +44,11 @@ public class RequestClient extends BaseClient {
         return get(path, userId, parameters);
     }
 
-    public ResponseEntity<Object> getOwnerRequests(long ownerId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getOwnerRequests(long ownerId) {
         return get("", + ownerId);
     }
 
-    public ResponseEntity<Object> createRequest(ItemRequestDto requestDto, long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> createRequest(ItemRequestDto requestDto, long userId) {
         return post("", userId, requestDto);
     }
 }
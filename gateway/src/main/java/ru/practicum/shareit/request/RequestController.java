@@ -7,8 +7,10 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.ratelimit.RateLimitCost;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/requests")
@@ -21,26 +23,28 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestBody @Valid ItemRequestDto requestDto,
+    public CompletableFuture<ResponseEntity<byte[]>> createRequest(@RequestBody @Valid ItemRequestDto requestDto,
                                         @RequestHeader(value = USER_ID) long userId) {
         return requestClient.createRequest(requestDto, userId);
     }
 
+    @RateLimitCost(value = 3, unpaged = 10)
     @GetMapping
-    public ResponseEntity<Object> getOwnerRequests(@RequestHeader(value = USER_ID) long ownerId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getOwnerRequests(@RequestHeader(value = USER_ID) long ownerId) {
         return requestClient.getOwnerRequests(ownerId);
 
     }
 
+    @RateLimitCost(value = 3, unpaged = 10)
     @GetMapping("/all")
-    public ResponseEntity<Object> getUserRequests(@RequestHeader(value = USER_ID) long userId,
+    public CompletableFuture<ResponseEntity<byte[]>> getUserRequests(@RequestHeader(value = USER_ID) long userId,
                                                 @RequestParam(name = "from", required = false) Integer from,
                                                 @RequestParam(name = "size", required = false) Integer size) {
         return requestClient.getUserRequests(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@PathVariable long requestId,
+    public CompletableFuture<ResponseEntity<byte[]>> getRequestById(@PathVariable long requestId,
                                                  @RequestHeader(value = USER_ID) long userId) {
         return requestClient.getRequestById(requestId, userId);
     }
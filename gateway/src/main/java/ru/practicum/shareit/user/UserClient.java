@@ -1,46 +1,49 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ServerConnectionPool;
+import ru.practicum.shareit.client.ServerEndpoints;
+import ru.practicum.shareit.client.UpstreamGuards;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, ServerConnectionPool pool,
+                      ServerEndpoints endpoints, UpstreamGuards guards, RequestCoalescer coalescer,
+                      ObjectMapper objectMapper, GatewayResponseCache cache) {
+        super(pool, endpoints, guards.forClient("users"), coalescer, serverUrl + API_PREFIX,
+                objectMapper, cache, "/users", "/items");
     }
 
-    public ResponseEntity<Object> getUserDtoById(long id) {
-        return get("/" + id);
+    public CompletableFuture<ResponseEntity<byte[]>> getUserDtoById(long id) {
+        return getCached("/" + id, null, null);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(UserDto userDto, long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> updateUser(UserDto userDto, long id) {
         return patch("/" + id, userDto);
     }
 
-    public ResponseEntity<Object> deleteUser(long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> deleteUser(long id) {
         return delete("/" + id);
     }
 }
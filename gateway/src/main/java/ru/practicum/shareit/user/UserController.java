@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/users")
@@ -19,27 +20,27 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping()
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<byte[]>> getAllUsers() {
         return userClient.getAllUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserById(@PathVariable long id) {
         return userClient.getUserDtoById(id);
     }
 
     @PostMapping()
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> createUser(@Valid @RequestBody UserDto userDto) {
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto userDto, @PathVariable long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> updateUser(@RequestBody UserDto userDto, @PathVariable long id) {
         return userClient.updateUser(userDto, id);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long id) {
+    public CompletableFuture<ResponseEntity<byte[]>> deleteUser(@PathVariable long id) {
         return userClient.deleteUser(id);
     }
 }
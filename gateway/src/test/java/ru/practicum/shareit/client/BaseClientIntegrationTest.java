@@ -0,0 +1,291 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.user.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks what {@link BaseClient} and the ndjson export forward in both directions, against the server stubbed
+ * with the JDK HTTP server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class BaseClientIntegrationTest {
+    private static StubServer server;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = new StubServer();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.stop();
+    }
+
+    @DynamicPropertySource
+    public static void serverProperties(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> server.url());
+        registry.add("shareit-server.urls", () -> server.url());
+        registry.add("shareit-server.breaker.minimum-calls", () -> "1000");
+        registry.add("shareit-server.outlier.consecutive-failures", () -> "1000");
+        registry.add("shareit-server.clients.users.breaker.window", () -> "1");
+        registry.add("shareit-server.clients.users.breaker.minimum-calls", () -> "1");
+        registry.add("shareit-server.clients.users.breaker.open-duration", () -> "1m");
+        registry.add("shareit-server.clients.items.breaker.window", () -> "1");
+        registry.add("shareit-server.clients.items.breaker.minimum-calls", () -> "1");
+        registry.add("shareit-server.clients.items.breaker.open-duration", () -> "1m");
+        registry.add("shareit-server.clients.items.timeout", () -> "1s");
+        registry.add("shareit-gateway.rate-limit.enabled", () -> "false");
+        registry.add("shareit-gateway.cache.enabled", () -> "false");
+    }
+
+    @BeforeEach
+    public void resetServer() {
+        server.reset();
+    }
+
+    @Test
+    public void testGet_shouldPassBodyStatusAndEndToEndHeadersThrough() {
+        String body = "{ \"id\" : 1,  \"name\":\"Ann\",\"email\":\"ann@mail.ru\" }";
+        server.answer(HttpStatus.OK.value(), body, Map.of("X-Trace", "abc", "Trailer", "X-Checksum"));
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity("/users/1", byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), response.getBody());
+        assertEquals("abc", response.getHeaders().getFirst("X-Trace"));
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertFalse(response.getHeaders().containsKey("Trailer"));
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    public void testGet_withServerError_shouldKeepStatusAndErrorBody() {
+        String body = "{\"error\":\"User not found: 7\"}";
+        server.answer(HttpStatus.NOT_FOUND.value(), body, Map.of());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/users/7", String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(body, response.getBody());
+    }
+
+    @Test
+    public void testGet_withExpiredCallerDeadline_shouldLeaveTheBreakerClosed() {
+        server.delayMillis = 300;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(BaseClient.REQUEST_TIMEOUT, "1");
+
+        ResponseEntity<String> response = restTemplate.exchange("/users/1", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                meterRegistry.get("shareit.upstream.breaker.state").tag("client", "users").gauge().value());
+        assertEquals(0, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "users").gauge().value());
+    }
+
+    @Test
+    public void testPost_shouldForwardTheOriginalRequestBytes() {
+        String body = "{ \"email\" : \"ann@mail.ru\",\n  \"name\" : \"Ann\" }";
+        server.answer(HttpStatus.CREATED.value(), "{\"id\":1}", Map.of());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = restTemplate.exchange("/users", HttpMethod.POST,
+                new HttpEntity<>(body, headers), String.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("{\"id\":1}", response.getBody());
+        assertEquals("POST", server.method);
+        assertEquals("/users", server.path);
+        assertEquals(body, server.body);
+    }
+
+    @Test
+    public void testPost_withBodyNotReadFromTheRequest_shouldSerializeIt() throws Exception {
+        server.answer(HttpStatus.CREATED.value(), "{\"id\":1}", Map.of());
+        UserDto userDto = new UserDto(null, "Ann", "ann@mail.ru");
+
+        ResponseEntity<byte[]> response = userClient.createUser(userDto).get();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(objectMapper.writeValueAsString(userDto), server.body);
+    }
+
+    @Test
+    public void testExport_shouldStreamTheServerBody() {
+        String body = "{\"id\":1,\"name\":\"Drill\"}\n{\"id\":2,\"name\":\"Drill bit\"}\n";
+        server.answer(HttpStatus.OK.value(), body, Map.of());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/items/search/export?text=drill", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(body, response.getBody());
+        assertEquals("/items/search/export", server.path);
+        assertEquals(0, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value());
+    }
+
+    @Test
+    @DirtiesContext
+    public void testExport_withServerError_shouldKeepStatusAndCountAFailure() {
+        String body = "{\"error\":\"Search is not available\"}";
+        server.answer(HttpStatus.INTERNAL_SERVER_ERROR.value(), body, Map.of());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/items/search/export?text=drill", String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(body, response.getBody());
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(),
+                meterRegistry.get("shareit.upstream.breaker.state").tag("client", "items").gauge().value());
+        assertEquals(0, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value());
+    }
+
+    @Test
+    public void testExport_withClientError_shouldKeepStatusAndLeaveTheBreakerClosed() {
+        String body = "{\"error\":\"Search text is too long\"}";
+        server.answer(HttpStatus.BAD_REQUEST.value(), body, Map.of());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/items/search/export?text=drill", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(body, response.getBody());
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                meterRegistry.get("shareit.upstream.breaker.state").tag("client", "items").gauge().value());
+        assertEquals(0, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value());
+    }
+
+    @Test
+    public void testExport_withBodyNeverCopied_shouldReleaseThePermitAfterTheTimeout() throws Exception {
+        server.answer(HttpStatus.OK.value(), "{\"id\":1}\n", Map.of());
+
+        ResponseEntity<StreamingResponseBody> response = itemClient.exportItemsByText("drill").get();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value() > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, meterRegistry.get("shareit.upstream.bulkhead.active").tag("client", "items").gauge().value());
+        assertThrows(IOException.class, () -> response.getBody().writeTo(new ByteArrayOutputStream()));
+    }
+
+    private static final class StubServer {
+        private final HttpServer server;
+        private volatile int status;
+        private volatile String responseBody;
+        private volatile Map<String, String> responseHeaders;
+        private volatile String method;
+        private volatile String path;
+        private volatile String body;
+        private volatile long delayMillis;
+
+        private StubServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/actuator/health", exchange -> respond(exchange, HttpStatus.OK.value(),
+                    "{\"status\":\"UP\"}", Map.of()));
+            server.createContext("/users", this::record);
+            server.createContext("/items", this::record);
+            server.start();
+            reset();
+        }
+
+        private void record(HttpExchange exchange) throws IOException {
+            method = exchange.getRequestMethod();
+            path = exchange.getRequestURI().getPath();
+            body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, status, responseBody, responseHeaders);
+        }
+
+        private void answer(int status, String responseBody, Map<String, String> responseHeaders) {
+            this.status = status;
+            this.responseBody = responseBody;
+            this.responseHeaders = responseHeaders;
+        }
+
+        private void reset() {
+            answer(HttpStatus.OK.value(), "[]", Map.of());
+            method = null;
+            path = null;
+            body = null;
+            delayMillis = 0;
+        }
+
+        private String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body,
+                                    Map<String, String> headers) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            headers.forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
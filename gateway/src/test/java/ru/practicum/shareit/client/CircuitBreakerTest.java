@@ -0,0 +1,129 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        now = 0;
+        breaker = new CircuitBreaker("test", 4, 4, 0.5, OPEN_NANOS, 1, () -> now);
+    }
+
+    @Test
+    public void onResult_belowMinimumCalls_shouldStayClosed() {
+        record(false, false, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void onResult_belowThreshold_shouldStayClosed() {
+        record(true, true, false, true, true, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void onResult_atThreshold_shouldOpenAndRefuseCalls() {
+        record(true, false, true, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(-1, breaker.tryAcquire());
+    }
+
+    @Test
+    public void onResult_shouldOnlyCountTheLastWindowOfCalls() {
+        record(false, true, true, true, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        record(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        record(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void tryAcquire_afterOpenDuration_shouldAdmitSingleProbe() {
+        trip();
+        now += OPEN_NANOS - 1;
+        assertEquals(-1, breaker.tryAcquire());
+
+        now += 1;
+        long probe = breaker.tryAcquire();
+
+        assertTrue(probe >= 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(-1, breaker.tryAcquire());
+    }
+
+    @Test
+    public void onResult_successfulProbe_shouldClose() {
+        trip();
+        now += OPEN_NANOS;
+        long probe = breaker.tryAcquire();
+
+        breaker.onResult(probe, true);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire() >= 0);
+    }
+
+    @Test
+    public void onResult_failedProbe_shouldOpenForAnotherPeriod() {
+        trip();
+        now += OPEN_NANOS;
+        long probe = breaker.tryAcquire();
+
+        breaker.onResult(probe, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now += OPEN_NANOS - 1;
+        assertEquals(-1, breaker.tryAcquire());
+    }
+
+    @Test
+    public void release_shouldLetAnotherProbeThrough() {
+        trip();
+        now += OPEN_NANOS;
+        long probe = breaker.tryAcquire();
+
+        breaker.release(probe);
+
+        assertTrue(breaker.tryAcquire() >= 0);
+    }
+
+    @Test
+    public void onResult_fromBeforeATransition_shouldBeIgnored() {
+        long stale = breaker.tryAcquire();
+        trip();
+        now += OPEN_NANOS;
+        long probe = breaker.tryAcquire();
+
+        breaker.onResult(stale, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(probe, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void trip() {
+        record(false, false, false, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void record(boolean... outcomes) {
+        for (boolean success : outcomes) {
+            breaker.onResult(breaker.tryAcquire(), success);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayResponseCacheTest {
+    private static final URI ITEM = URI.create("http://server/items/1");
+    private static final URI SEARCH = URI.create("http://server/items/search?text=drill");
+    private static final URI USER = URI.create("http://server/users/1");
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayResponseCache cache;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = 0;
+        cache = new GatewayResponseCache(meterRegistry, true, 3, DataSize.ofBytes(10), Duration.ofSeconds(1),
+                () -> now);
+    }
+
+    @Test
+    public void store_shouldKeepResponsesPerCallerUntilTtlPasses() {
+        cache.store(ITEM, 1L, ok("\"v1\"", "abc"), cache.generation());
+
+        GatewayResponseCache.Entry entry = cache.get(ITEM, 1L);
+        assertNotNull(entry);
+        assertEquals("\"v1\"", entry.getEtag());
+        assertNull(cache.get(ITEM, 2L));
+        assertTrue(cache.isFresh(entry));
+
+        now += Duration.ofSeconds(1).toNanos();
+
+        assertFalse(cache.isFresh(cache.get(ITEM, 1L)));
+    }
+
+    @Test
+    public void store_withoutEtagOrOk_shouldDropTheEntry() {
+        cache.store(ITEM, 1L, ok("\"v1\"", "abc"), cache.generation());
+
+        cache.store(ITEM, 1L, ResponseEntity.ok().body("abc".getBytes()), cache.generation());
+        cache.store(USER, 1L, ResponseEntity.notFound().eTag("\"v1\"").build(), cache.generation());
+
+        assertNull(cache.get(ITEM, 1L));
+        assertNull(cache.get(USER, 1L));
+    }
+
+    @Test
+    public void revalidated_shouldServeEntryAndStartFreshnessOver() {
+        cache.store(ITEM, 1L, ok("\"v1\"", "abc"), cache.generation());
+        now += Duration.ofSeconds(5).toNanos();
+        GatewayResponseCache.Entry stale = cache.get(ITEM, 1L);
+
+        ResponseEntity<byte[]> response = cache.revalidated(ITEM, 1L, stale);
+
+        assertArrayEquals("abc".getBytes(), response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertTrue(cache.isFresh(cache.get(ITEM, 1L)));
+        assertEquals(1, meterRegistry.get("shareit.gateway.cache.gets").tag("result", "revalidated")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void revalidated_afterEntryWasReplaced_shouldNotRestoreIt() {
+        cache.store(ITEM, 1L, ok("\"v1\"", "abc"), cache.generation());
+        GatewayResponseCache.Entry old = cache.get(ITEM, 1L);
+        cache.store(ITEM, 1L, ok("\"v2\"", "abcd"), cache.generation());
+
+        cache.revalidated(ITEM, 1L, old);
+
+        assertEquals("\"v2\"", cache.get(ITEM, 1L).getEtag());
+    }
+
+    @Test
+    public void store_withGenerationReadBeforeAWrite_shouldBeDiscarded() {
+        cache.store(ITEM, 1L, ok("\"v1\"", "abc"), cache.generation());
+        long generation = cache.generation();
+
+        cache.invalidate("/users");
+        cache.store(ITEM, 1L, ok("\"v2\"", "abcd"), generation);
+
+        assertNull(cache.get(ITEM, 1L));
+        cache.store(ITEM, 1L, ok("\"v2\"", "abcd"), cache.generation());
+        assertNotNull(cache.get(ITEM, 1L));
+    }
+
+    @Test
+    public void invalidate_shouldEvictOnlyPathsUnderThePrefixes() {
+        cache.store(ITEM, 1L, ok("\"a\"", "a"), cache.generation());
+        cache.store(SEARCH, 1L, ok("\"b\"", "b"), cache.generation());
+        cache.store(USER, 1L, ok("\"c\"", "c"), cache.generation());
+
+        cache.invalidate("/items");
+
+        assertNull(cache.get(ITEM, 1L));
+        assertNull(cache.get(SEARCH, 1L));
+        assertNotNull(cache.get(USER, 1L));
+        assertEquals(1, meterRegistry.get("shareit.gateway.cache.bytes").gauge().value());
+    }
+
+    @Test
+    public void store_shouldEvictLeastRecentlyUsedBeyondSizeOrBytes() {
+        cache.store(ITEM, 1L, ok("\"a\"", "aaaa"), cache.generation());
+        cache.store(SEARCH, 1L, ok("\"b\"", "bbbb"), cache.generation());
+        cache.get(ITEM, 1L);
+
+        cache.store(USER, 1L, ok("\"c\"", "cccc"), cache.generation());
+
+        assertNotNull(cache.get(ITEM, 1L));
+        assertNull(cache.get(SEARCH, 1L));
+        assertNotNull(cache.get(USER, 1L));
+        assertEquals(8, meterRegistry.get("shareit.gateway.cache.bytes").gauge().value());
+    }
+
+    private static ResponseEntity<byte[]> ok(String etag, String body) {
+        return ResponseEntity.ok().eTag(etag).body(body.getBytes());
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OriginalRequestBodyAdviceTest {
+    private static final byte[] BYTES = "{ \"name\" : \"Ann\" }".getBytes(StandardCharsets.UTF_8);
+
+    private final OriginalRequestBodyAdvice advice = new OriginalRequestBodyAdvice();
+
+    @BeforeEach
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void originalBytes_forTheBodyRead_shouldReturnTheRequestBytes() throws Exception {
+        UserDto body = new UserDto(null, "Ann", null);
+
+        HttpInputMessage message = read(body);
+
+        assertArrayEquals(BYTES, StreamUtils.copyToByteArray(message.getBody()));
+        assertArrayEquals(BYTES, OriginalRequestBodyAdvice.originalBytes(body));
+    }
+
+    @Test
+    public void originalBytes_forAnotherObject_shouldReturnNull() throws Exception {
+        read(new UserDto(null, "Ann", null));
+
+        assertNull(OriginalRequestBodyAdvice.originalBytes(new UserDto(null, "Ann", null)));
+    }
+
+    @Test
+    public void originalBytes_outsideARequest_shouldReturnNull() throws Exception {
+        UserDto body = new UserDto(null, "Ann", null);
+        read(body);
+
+        RequestContextHolder.resetRequestAttributes();
+
+        assertNull(OriginalRequestBodyAdvice.originalBytes(body));
+    }
+
+    private HttpInputMessage read(Object body) throws Exception {
+        HttpInputMessage message = advice.beforeBodyRead(new MockHttpInputMessage(BYTES), null, UserDto.class,
+                MappingJackson2HttpMessageConverter.class);
+        advice.afterBodyRead(body, message, null, UserDto.class, MappingJackson2HttpMessageConverter.class);
+        return message;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+    private static final URI ITEM = URI.create("http://server/items/1");
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+    private AtomicInteger calls;
+    private CompletableFuture<String> upstream;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(meterRegistry, true);
+        calls = new AtomicInteger();
+        upstream = new CompletableFuture<>();
+    }
+
+    @Test
+    public void execute_whileInFlight_shouldFanOutOneCallToFollowers() throws Exception {
+        CompletableFuture<String> leader = coalescer.execute("GET", ITEM, 1L, null, call());
+        CompletableFuture<String> follower = coalescer.execute("GET", ITEM, 1L, null, call());
+        CompletableFuture<String> other = coalescer.execute("GET", ITEM, 1L, null, call());
+
+        upstream.complete("item");
+
+        assertEquals(1, calls.get());
+        assertEquals("item", leader.get());
+        assertEquals("item", follower.get());
+        assertEquals("item", other.get());
+        assertEquals(2.0 / 3, meterRegistry.get("shareit.upstream.coalescing.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    public void execute_withDifferentKey_shouldSendItsOwnCall() {
+        coalescer.execute("GET", ITEM, 1L, null, call());
+        coalescer.execute("GET", ITEM, 2L, null, call());
+        coalescer.execute("GET", ITEM, 1L, "\"v1\"", call());
+        coalescer.execute("HEAD", ITEM, 1L, null, call());
+        coalescer.execute("GET", URI.create("http://server/items/2"), 1L, null, call());
+
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    public void execute_whenCallFails_shouldPropagateErrorToEveryCaller() {
+        CompletableFuture<String> leader = coalescer.execute("GET", ITEM, 1L, null, call());
+        CompletableFuture<String> follower = coalescer.execute("GET", ITEM, 1L, null, call());
+        IllegalStateException failure = new IllegalStateException("down");
+
+        upstream.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+    }
+
+    @Test
+    public void execute_whenSupplierThrows_shouldFailAndFreeTheKey() throws Exception {
+        CompletableFuture<String> failed = coalescer.execute("GET", ITEM, 1L, null, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        CompletableFuture<String> next = coalescer.execute("GET", ITEM, 1L, null, call());
+        upstream.complete("item");
+        assertEquals("item", next.get());
+    }
+
+    @Test
+    public void execute_afterCompletion_shouldSendANewCall() {
+        coalescer.execute("GET", ITEM, 1L, null, call());
+        upstream.complete("item");
+        upstream = new CompletableFuture<>();
+
+        coalescer.execute("GET", ITEM, 1L, null, call());
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void execute_whenOneCallerCancels_shouldNotCancelTheOthers() throws Exception {
+        CompletableFuture<String> leader = coalescer.execute("GET", ITEM, 1L, null, call());
+        CompletableFuture<String> follower = coalescer.execute("GET", ITEM, 1L, null, call());
+
+        leader.cancel(true);
+        upstream.complete("item");
+
+        assertFalse(upstream.isCancelled());
+        assertEquals("item", follower.get());
+    }
+
+    @Test
+    public void execute_whenDisabled_shouldAlwaysCall() {
+        coalescer = new RequestCoalescer(meterRegistry, false);
+
+        coalescer.execute("GET", ITEM, 1L, null, call());
+        coalescer.execute("GET", ITEM, 1L, null, call());
+
+        assertEquals(2, calls.get());
+    }
+
+    private Supplier<CompletableFuture<String>> call() {
+        return () -> {
+            calls.incrementAndGet();
+            return upstream;
+        };
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestHedgerTest {
+    private static final Duration DELAY = Duration.ofMillis(20);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestHedger.Route route;
+    private List<CompletableFuture<HttpResponse<String>>> sent;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        route = new RequestHedger(meterRegistry, true, 0.9, DELAY, DELAY, 1, 10).route("test");
+        sent = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    public void execute_whenFirstAnswersInTime_shouldNotHedge() throws Exception {
+        CompletableFuture<HttpResponse<String>> result = route.execute(call());
+        sent.get(0).complete(response(200));
+
+        assertEquals(200, result.get().statusCode());
+        Thread.sleep(DELAY.toMillis() * 3);
+        assertEquals(1, sent.size());
+        assertEquals(0, hedges("sent"));
+    }
+
+    @Test
+    public void execute_whenFirstIsSlow_shouldHedgeAfterDelayAndCancelTheLoser() throws Exception {
+        CompletableFuture<HttpResponse<String>> result = route.execute(call());
+        awaitSent(2);
+
+        HttpResponse<String> hedged = response(200);
+        sent.get(1).complete(hedged);
+
+        assertSame(hedged, result.get(1, TimeUnit.SECONDS));
+        assertTrue(sent.get(0).isCancelled());
+        assertEquals(1, hedges("sent"));
+        assertEquals(1, hedges("won"));
+    }
+
+    @Test
+    public void execute_whenFirstAnswersAfterHedge_shouldUseItAndCancelTheHedge() throws Exception {
+        CompletableFuture<HttpResponse<String>> result = route.execute(call());
+        awaitSent(2);
+
+        HttpResponse<String> first = response(200);
+        sent.get(0).complete(first);
+
+        assertSame(first, result.get(1, TimeUnit.SECONDS));
+        assertTrue(sent.get(1).isCancelled());
+        assertEquals(0, hedges("won"));
+    }
+
+    @Test
+    public void execute_withServerErrorFromOneCall_shouldWaitForTheOther() throws Exception {
+        CompletableFuture<HttpResponse<String>> result = route.execute(call());
+        awaitSent(2);
+
+        sent.get(1).complete(response(503));
+        assertFalse(result.isDone());
+        sent.get(0).complete(response(200));
+
+        assertEquals(200, result.get(1, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    public void execute_whenBothFail_shouldReturnTheLastOutcome() throws Exception {
+        CompletableFuture<HttpResponse<String>> result = route.execute(call());
+        awaitSent(2);
+
+        sent.get(0).complete(response(500));
+        sent.get(1).complete(response(503));
+
+        assertEquals(503, result.get(1, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    public void execute_overBudget_shouldStopHedging() throws Exception {
+        route = new RequestHedger(meterRegistry, true, 0.9, DELAY, DELAY, 1, 0).route("budget");
+        for (int i = 0; i < 11; i++) {
+            CompletableFuture<HttpResponse<String>> result = route.execute(call());
+            Thread.sleep(DELAY.toMillis() * 3);
+            result.complete(response(200));
+        }
+
+        assertEquals(10, meterRegistry.get("shareit.upstream.hedging.hedges").tag("route", "budget")
+                .tag("result", "sent").counter().count());
+        assertEquals(1, meterRegistry.get("shareit.upstream.hedging.hedges").tag("route", "budget")
+                .tag("result", "over-budget").functionCounter().count());
+    }
+
+    @Test
+    public void execute_throughGuard_shouldGiveTheLosersPermitBack() throws Exception {
+        UpstreamGuard guard = guard(2);
+
+        CompletableFuture<HttpResponse<String>> result = route.execute(() -> guard.call(call()));
+        awaitSent(2);
+        assertEquals(2, active());
+
+        sent.get(1).complete(response(200));
+
+        assertEquals(200, result.get(1, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, active());
+        assertTrue(sent.get(0).isCancelled());
+    }
+
+    @Test
+    public void execute_withFullBulkhead_shouldSkipTheHedgeAndKeepTheFirstCall() throws Exception {
+        UpstreamGuard guard = guard(1);
+
+        CompletableFuture<HttpResponse<String>> result = route.execute(() -> guard.call(call()));
+        Thread.sleep(DELAY.toMillis() * 3);
+
+        assertEquals(1, sent.size());
+        assertEquals(1, active());
+        assertEquals(1, meterRegistry.get("shareit.upstream.bulkhead.rejected").counter().count());
+        assertFalse(result.isDone());
+
+        sent.get(0).complete(response(200));
+        assertEquals(200, result.get(1, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, active());
+    }
+
+    @Test
+    public void execute_withHalfTheCallsSlow_shouldKeepTheDelay() throws Exception {
+        route = new RequestHedger(meterRegistry, true, 0.9, Duration.ofMillis(1), DELAY, 64, 100).route("bimodal");
+        for (int i = 0; i < 128; i++) {
+            int first = sent.size();
+            CompletableFuture<HttpResponse<String>> result = route.execute(call());
+            if (i % 2 == 0) {
+                sent.get(first).complete(response(200));
+            } else {
+                awaitSent(first + 2);
+                sent.get(first + 1).complete(response(200));
+            }
+            result.get(1, TimeUnit.SECONDS);
+        }
+
+        assertEquals(DELAY.toMillis(), meterRegistry.get("shareit.upstream.hedging.delay").tag("route", "bimodal")
+                .gauge().value());
+    }
+
+    @Test
+    public void execute_whenDisabled_shouldCallOnce() throws Exception {
+        route = new RequestHedger(meterRegistry, false, 0.9, DELAY, DELAY, 1, 10).route("disabled");
+
+        route.execute(call());
+        Thread.sleep(DELAY.toMillis() * 3);
+
+        assertEquals(1, sent.size());
+    }
+
+    private Supplier<CompletableFuture<HttpResponse<String>>> call() {
+        return () -> {
+            CompletableFuture<HttpResponse<String>> future = new CompletableFuture<>();
+            sent.add(future);
+            return future;
+        };
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, sent.size());
+    }
+
+    private UpstreamGuard guard(int maxConcurrent) {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 10, 0.5, TimeUnit.SECONDS.toNanos(10), 1);
+        return new UpstreamGuard("test", maxConcurrent, Duration.ofMinutes(1), breaker, meterRegistry);
+    }
+
+    private double active() {
+        return meterRegistry.get("shareit.upstream.bulkhead.active").gauge().value();
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get("shareit.upstream.hedging.hedges").tag("route", "test").tag("result", result)
+                .counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(int status) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        return response;
+    }
+}
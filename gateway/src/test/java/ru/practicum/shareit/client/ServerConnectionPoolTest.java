@@ -0,0 +1,133 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerConnectionPoolTest {
+    private static final URI ITEMS = URI.create("http://localhost:9090/items");
+    private static final URI OTHER_ITEMS = URI.create("http://localhost:9091/items");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void acquire_underLimit_shouldLeaseAtOnce() throws Exception {
+        ServerConnectionPool pool = pool(2, 10, Duration.ofMinutes(1));
+
+        CompletableFuture<ServerConnectionPool.Lease> first = pool.acquire(ITEMS, "1");
+        CompletableFuture<ServerConnectionPool.Lease> second = pool.acquire(ITEMS, "2");
+
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(2, gauge("shareit.upstream.pool.leased"));
+        first.get().close();
+        first.get().close();
+        assertEquals(1, gauge("shareit.upstream.pool.leased"));
+    }
+
+    @Test
+    public void release_withWaitingFlows_shouldHandOverInTurn() throws Exception {
+        ServerConnectionPool pool = pool(1, 10, Duration.ofMinutes(1));
+        ServerConnectionPool.Lease held = pool.acquire(ITEMS, "1").get();
+        CompletableFuture<ServerConnectionPool.Lease> firstOfUser1 = pool.acquire(ITEMS, "1");
+        CompletableFuture<ServerConnectionPool.Lease> secondOfUser1 = pool.acquire(ITEMS, "1");
+        CompletableFuture<ServerConnectionPool.Lease> firstOfUser2 = pool.acquire(ITEMS, "2");
+        assertEquals(3, gauge("shareit.upstream.pool.pending"));
+
+        held.close();
+        assertTrue(firstOfUser1.isDone());
+        assertFalse(firstOfUser2.isDone());
+
+        firstOfUser1.get().close();
+        assertTrue(firstOfUser2.isDone());
+        assertFalse(secondOfUser1.isDone());
+
+        firstOfUser2.get().close();
+        assertTrue(secondOfUser1.isDone());
+        assertEquals(0, gauge("shareit.upstream.pool.pending"));
+        assertEquals(1, gauge("shareit.upstream.pool.leased"));
+    }
+
+    @Test
+    public void acquire_withFullQueue_shouldFailAtOnce() {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofMinutes(1));
+        pool.acquire(ITEMS, "1");
+        pool.acquire(ITEMS, "1");
+
+        CompletableFuture<ServerConnectionPool.Lease> rejected = pool.acquire(ITEMS, "2");
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(UpstreamUnavailable.class, e.getCause());
+        assertEquals(1, meterRegistry.get("shareit.upstream.pool.rejected").tag("reason", "queue-full")
+                .counter().count());
+        assertEquals(1, gauge("shareit.upstream.pool.pending"));
+    }
+
+    @Test
+    public void acquire_whenTimedOut_shouldLeaveTheQueue() {
+        ServerConnectionPool pool = pool(1, 1, Duration.ofMillis(50));
+        pool.acquire(ITEMS, "1");
+
+        CompletableFuture<ServerConnectionPool.Lease> waiting = pool.acquire(ITEMS, "1");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamUnavailable.class, e.getCause());
+        assertEquals(0, gauge("shareit.upstream.pool.pending"));
+        assertEquals(1, meterRegistry.get("shareit.upstream.pool.rejected").tag("reason", "timeout")
+                .counter().count());
+        assertFalse(pool.acquire(ITEMS, "2").isCompletedExceptionally());
+    }
+
+    @Test
+    public void release_afterWaiterTimedOut_shouldFreeTheConnection() throws Exception {
+        ServerConnectionPool pool = pool(1, 10, Duration.ofMillis(50));
+        ServerConnectionPool.Lease held = pool.acquire(ITEMS, "1").get();
+        CompletableFuture<ServerConnectionPool.Lease> waiting = pool.acquire(ITEMS, "2");
+        assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+
+        held.close();
+
+        assertEquals(0, gauge("shareit.upstream.pool.leased"));
+        CompletableFuture<ServerConnectionPool.Lease> next = pool.acquire(ITEMS, "2");
+        assertTrue(next.isDone());
+        assertEquals(1, gauge("shareit.upstream.pool.leased"));
+    }
+
+    @Test
+    public void acquire_forOtherRoute_shouldNotWaitForFullRoute() {
+        ServerConnectionPool pool = pool(1, 10, Duration.ofMinutes(1));
+        pool.acquire(ITEMS, "1");
+
+        CompletableFuture<ServerConnectionPool.Lease> other = pool.acquire(OTHER_ITEMS, "1");
+
+        assertTrue(other.isDone());
+    }
+
+    private ServerConnectionPool pool(int maxPerRoute, int maxPending, Duration acquireTimeout) {
+        return new ServerConnectionPool(HttpClient.newHttpClient(), meterRegistry, maxPerRoute, maxPending,
+                acquireTimeout);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("route", "http://localhost:9090").gauge().value();
+    }
+}
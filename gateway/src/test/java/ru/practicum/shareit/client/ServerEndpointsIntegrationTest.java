@@ -0,0 +1,200 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the gateway against two local server instances, stubbed with the JDK HTTP server since the gateway
+ * does not depend on the server module.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ServerEndpointsIntegrationTest {
+    private static final int CALLS = 40;
+
+    private static StubServer first;
+    private static StubServer second;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    public static void startServers() throws IOException {
+        first = new StubServer();
+        second = new StubServer();
+    }
+
+    @AfterAll
+    public static void stopServers() {
+        first.stop();
+        second.stop();
+    }
+
+    @DynamicPropertySource
+    public static void serverProperties(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> first.url());
+        registry.add("shareit-server.urls", () -> first.url() + "," + second.url());
+        registry.add("shareit-server.health.interval", () -> "100ms");
+        registry.add("shareit-server.outlier.consecutive-failures", () -> "3");
+        registry.add("shareit-server.outlier.base-ejection", () -> "1m");
+        registry.add("shareit-server.breaker.minimum-calls", () -> "1000");
+        registry.add("shareit-gateway.rate-limit.enabled", () -> "false");
+        registry.add("shareit-gateway.cache.enabled", () -> "false");
+    }
+
+    @BeforeEach
+    public void resetServers() {
+        first.reset();
+        second.reset();
+    }
+
+    @Test
+    @Order(1)
+    public void testGetUsers_withTwoHealthyServers_shouldSpreadCalls() {
+        callUsers(CALLS);
+
+        assertEquals(CALLS, first.calls.get() + second.calls.get());
+        assertTrue(first.calls.get() > 0);
+        assertTrue(second.calls.get() > 0);
+    }
+
+    @Test
+    @Order(2)
+    @SneakyThrows
+    public void testGetUsers_withServerFailingHealthCheck_shouldSkipIt() {
+        second.healthStatus = HttpStatus.SERVICE_UNAVAILABLE.value();
+        awaitUnavailable(second);
+
+        callUsers(CALLS);
+
+        assertEquals(CALLS, first.calls.get());
+        assertEquals(0, second.calls.get());
+    }
+
+    @Test
+    @Order(3)
+    @SneakyThrows
+    public void testGetUsers_withServerAnsweringErrors_shouldEjectIt() {
+        second.usersStatus = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        int errors = 0;
+        for (int i = 0; i < CALLS && second.calls.get() < 3; i++) {
+            if (getUsers().getStatusCode() != HttpStatus.OK) {
+                errors++;
+            }
+        }
+        assertEquals(3, errors);
+        awaitUnavailable(second);
+        first.reset();
+        second.reset();
+
+        callUsers(CALLS);
+
+        assertEquals(CALLS, first.calls.get());
+        assertEquals(0, second.calls.get());
+    }
+
+    @Test
+    @Order(4)
+    public void testGetUsers_withServerDown_shouldRetryOnTheOther() {
+        second.stop();
+
+        callUsers(CALLS);
+
+        assertEquals(CALLS, first.calls.get());
+    }
+
+    private void callUsers(int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(HttpStatus.OK, getUsers().getStatusCode());
+        }
+    }
+
+    private ResponseEntity<String> getUsers() {
+        return restTemplate.getForEntity("/users", String.class);
+    }
+
+    private void awaitUnavailable(StubServer server) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            double available = meterRegistry.get("shareit.upstream.endpoint.available")
+                    .tag("endpoint", server.url())
+                    .gauge()
+                    .value();
+            if (available == 0) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError(server.url() + " is still available");
+    }
+
+    private static final class StubServer {
+        private final HttpServer server;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile int healthStatus;
+        private volatile int usersStatus;
+
+        private StubServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/actuator/health", exchange -> respond(exchange, healthStatus, "{\"status\":\"UP\"}"));
+            server.createContext("/users", exchange -> {
+                calls.incrementAndGet();
+                respond(exchange, usersStatus, "[]");
+            });
+            server.start();
+            reset();
+        }
+
+        private void reset() {
+            calls.set(0);
+            healthStatus = HttpStatus.OK.value();
+            usersStatus = HttpStatus.OK.value();
+        }
+
+        private String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
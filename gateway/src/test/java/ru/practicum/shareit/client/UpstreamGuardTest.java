@@ -0,0 +1,165 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exceptions.UpstreamUnavailable;
+
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpstreamGuardTest {
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        breaker = new CircuitBreaker("test", 1, 1, 1, TimeUnit.SECONDS.toNanos(10), 1);
+    }
+
+    @Test
+    public void call_overBulkhead_shouldFailAtOnce() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+        guard.call(CompletableFuture::new);
+
+        CompletableFuture<HttpResponse<String>> rejected = guard.call(CompletableFuture::new);
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(UpstreamUnavailable.class, e.getCause());
+        assertEquals(1, meterRegistry.get("shareit.upstream.bulkhead.rejected").counter().count());
+    }
+
+    @Test
+    public void call_whenAnswered_shouldReleasePermit() throws Exception {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+        CompletableFuture<HttpResponse<String>> upstream = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> call = guard.call(() -> upstream);
+
+        upstream.complete(response(200));
+
+        assertEquals(200, call.get().statusCode());
+        assertEquals(0, active());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void call_withServerError_shouldCountAsFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+
+        guard.call(() -> CompletableFuture.completedFuture(response(503)));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(0, active());
+    }
+
+    @Test
+    public void call_whenCancelled_shouldReleasePermitWithoutCountingAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+        CompletableFuture<HttpResponse<String>> upstream = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<String>> call = guard.call(() -> upstream);
+
+        call.cancel(true);
+
+        assertEquals(0, active());
+        assertTrue(upstream.isCancelled());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        CompletableFuture<HttpResponse<String>> next = guard.call(CompletableFuture::new);
+        assertEquals(1, active());
+        assertFalse(next.isDone());
+    }
+
+    @Test
+    public void call_whenTimedOut_shouldFailReleasePermitAndCountAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMillis(50));
+        CompletableFuture<HttpResponse<String>> upstream = new CompletableFuture<>();
+
+        CompletableFuture<HttpResponse<String>> call = guard.call(() -> upstream);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpTimeoutException.class, e.getCause());
+        assertEquals(0, active());
+        assertTrue(upstream.isCancelled());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void call_whenCallerDeadlineRunsOut_shouldReleasePermitWithoutCountingAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+
+        CompletableFuture<HttpResponse<String>> call = guard.call(() -> CompletableFuture.failedFuture(
+                new HttpTimeoutException("request timed out")), true);
+
+        assertTrue(call.isCompletedExceptionally());
+        assertEquals(0, active());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void call_withServerDeadline504OnCallerDeadline_shouldNotCountAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+
+        guard.call(() -> CompletableFuture.completedFuture(response(504)), true);
+
+        assertEquals(0, active());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void call_withServer504OnOwnTimeout_shouldCountAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+
+        guard.call(() -> CompletableFuture.completedFuture(response(504)), false);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void call_whenOwnTimeoutRunsOutOnCallerDeadline_shouldCountAFailure() {
+        UpstreamGuard guard = guard(1, Duration.ofMillis(50));
+
+        CompletableFuture<HttpResponse<String>> call = guard.call(CompletableFuture::new, true);
+
+        assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void call_whenSupplierThrows_shouldReleasePermit() {
+        UpstreamGuard guard = guard(1, Duration.ofMinutes(1));
+
+        CompletableFuture<HttpResponse<String>> call = guard.call(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(call.isCompletedExceptionally());
+        assertEquals(0, active());
+    }
+
+    private UpstreamGuard guard(int maxConcurrent, Duration timeout) {
+        return new UpstreamGuard("test", maxConcurrent, timeout, breaker, meterRegistry);
+    }
+
+    private double active() {
+        return meterRegistry.get("shareit.upstream.bulkhead.active").gauge().value();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(int status) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        return response;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import ru.practicum.shareit.exceptions.TooManyRequests;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitInterceptorTest {
+    private long now;
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        interceptor = interceptor(10, 1);
+    }
+
+    @Test
+    public void preHandle_withoutCost_shouldChargeOneToken() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        }
+
+        assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+    }
+
+    @Test
+    public void preHandle_unpaged_shouldChargeUnpagedCost() throws Exception {
+        interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("list"));
+
+        TooManyRequests e = assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        assertEquals(1, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void preHandle_withSizeOrCursor_shouldChargePagedCost() throws Exception {
+        MockHttpServletRequest sized = request("1");
+        sized.setParameter("size", "10");
+        MockHttpServletRequest cursor = request("1");
+        cursor.setParameter("cursor", "abc");
+
+        interceptor.preHandle(sized, new MockHttpServletResponse(), handler("list"));
+        interceptor.preHandle(cursor, new MockHttpServletResponse(), handler("list"));
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        }
+        assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+    }
+
+    @Test
+    public void preHandle_withoutUnpagedCost_shouldChargeValue() throws Exception {
+        interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("pagedOnly"));
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        }
+        assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+    }
+
+    @Test
+    public void preHandle_shouldRoundRetryAfterUpToWholeSeconds() throws Exception {
+        interceptor = interceptor(1, 0.4);
+        interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain"));
+
+        TooManyRequests e = assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        assertEquals(3, e.getRetryAfterSeconds());
+
+        now += TimeUnit.MILLISECONDS.toNanos(2499);
+        e = assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+        assertEquals(1, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void preHandle_shouldKeepSeparateBucketsPerUserAndAddress() throws Exception {
+        interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("list"));
+        MockHttpServletRequest anonymous = new MockHttpServletRequest();
+        anonymous.setRemoteAddr("10.0.0.1");
+
+        assertTrue(interceptor.preHandle(request(" 2 "), new MockHttpServletResponse(), handler("list")));
+        assertTrue(interceptor.preHandle(anonymous, new MockHttpServletResponse(), handler("list")));
+        assertThrows(TooManyRequests.class,
+                () -> interceptor.preHandle(request("2"), new MockHttpServletResponse(), handler("plain")));
+    }
+
+    @Test
+    public void preHandle_withoutHandlerMethod_shouldNotCharge() throws Exception {
+        interceptor = interceptor(1, 1);
+
+        assertTrue(interceptor.preHandle(request("1"), new MockHttpServletResponse(), new Object()));
+        assertTrue(interceptor.preHandle(request("1"), new MockHttpServletResponse(), handler("plain")));
+    }
+
+    private RateLimitInterceptor interceptor(int capacity, double refillPerSecond) {
+        return new RateLimitInterceptor(
+                new RateLimiter(new SimpleMeterRegistry(), true, capacity, refillPerSecond, 1000, () -> now));
+    }
+
+    private static MockHttpServletRequest request(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Sharer-User-Id", userId);
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod(name));
+    }
+
+    private static class Endpoints {
+        void plain() {
+        }
+
+        @RateLimitCost(value = 2, unpaged = 10)
+        void list() {
+        }
+
+        @RateLimitCost(3)
+        void pagedOnly() {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = 0;
+    }
+
+    @Test
+    public void tryAcquire_shouldDenyWhenEmptyAndRefillOverTime() {
+        RateLimiter limiter = limiter(10, 2, 1000);
+
+        assertEquals(0, limiter.tryAcquire("user:1", 10));
+        assertEquals(SECOND / 2, limiter.tryAcquire("user:1", 1));
+
+        now += SECOND / 4;
+        assertEquals(SECOND / 4, limiter.tryAcquire("user:1", 1));
+
+        now += SECOND / 4;
+        assertEquals(0, limiter.tryAcquire("user:1", 1));
+        assertEquals(0, limiter.tryAcquire("user:2", 10));
+        assertEquals(2, meterRegistry.get("shareit.gateway.rate-limit.requests").tag("result", "rejected")
+                .counter().count());
+    }
+
+    @Test
+    public void tryAcquire_shouldNotRefillPastCapacity() {
+        RateLimiter limiter = limiter(10, 2, 1000);
+        limiter.tryAcquire("user:1", 1);
+
+        now += 60 * SECOND;
+
+        assertEquals(0, limiter.tryAcquire("user:1", 10));
+        assertEquals(SECOND / 2, limiter.tryAcquire("user:1", 1));
+    }
+
+    @Test
+    public void tryAcquire_withCostAboveCapacity_shouldChargeCapacity() {
+        RateLimiter limiter = limiter(10, 2, 1000);
+
+        assertEquals(0, limiter.tryAcquire("user:1", 50));
+        assertEquals(5 * SECOND, limiter.tryAcquire("user:1", 50));
+    }
+
+    @Test
+    public void tryAcquire_whenDisabled_shouldAlwaysAllow() {
+        RateLimiter limiter = new RateLimiter(meterRegistry, false, 1, 1, 1000, () -> now);
+
+        assertEquals(0, limiter.tryAcquire("user:1", 1));
+        assertEquals(0, limiter.tryAcquire("user:1", 1));
+    }
+
+    @Test
+    public void tryAcquire_whenStripeIsFull_shouldForgetLeastRecentlyUsedCaller() {
+        RateLimiter limiter = limiter(10, 1, 128);
+        List<String> callers = callersInOneStripe(3);
+
+        limiter.tryAcquire(callers.get(0), 10);
+        limiter.tryAcquire(callers.get(1), 10);
+        limiter.tryAcquire(callers.get(0), 1);
+        limiter.tryAcquire(callers.get(2), 1);
+
+        assertTrue(limiter.tryAcquire(callers.get(0), 1) > 0);
+        assertEquals(0, limiter.tryAcquire(callers.get(1), 10));
+    }
+
+    @Test
+    public void tryAcquire_shouldKeepStripeWithinItsShareOfMaxCallersWhenNoBucketIsFull() {
+        RateLimiter limiter = limiter(10, 1, 64);
+        List<String> callers = callersInOneStripe(3);
+
+        for (String caller : callers) {
+            assertEquals(0, limiter.tryAcquire(caller, 10));
+        }
+
+        assertEquals(0, limiter.tryAcquire(callers.get(0), 10));
+        assertTrue(limiter.tryAcquire(callers.get(0), 1) > 0);
+    }
+
+    private RateLimiter limiter(int capacity, double refillPerSecond, int maxCallers) {
+        return new RateLimiter(meterRegistry, true, capacity, refillPerSecond, maxCallers, () -> now);
+    }
+
+    private static List<String> callersInOneStripe(int count) {
+        List<String> callers = new ArrayList<>();
+        int stripe = stripeOf("user:0");
+        for (int i = 0; callers.size() < count; i++) {
+            String caller = "user:" + i;
+            if (stripeOf(caller) == stripe) {
+                callers.add(caller);
+            }
+        }
+        return callers;
+    }
+
+    private static int stripeOf(String caller) {
+        return (caller.hashCode() & Integer.MAX_VALUE) % 64;
+    }
+}
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.booking.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.services.BookingService;
@@ -12,6 +16,7 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private static final String USER_ID = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
     private final BookingService bookingService;
 
     @Autowired
@@ -27,21 +32,23 @@ public class BookingController {
     }
 
     @GetMapping()
-    public List<SentBookingDto> getAllUserBookings(@RequestHeader(value = USER_ID) long userId,
-                                                   @RequestParam(name = "from", required = false) Integer from,
-                                                   @RequestParam(name = "size", required = false) Integer size,
-                                                   @RequestParam(name = "state", required = false, defaultValue = "ALL")
-                                                   String state) {
-        return bookingService.getAllUserBookings(userId, state, "USER", from, size);
+    public ResponseEntity<List<SentBookingDto>> getAllUserBookings(@RequestHeader(value = USER_ID) long userId,
+                                                                   @RequestParam(name = "from", required = false) Integer from,
+                                                                   @RequestParam(name = "size", required = false) Integer size,
+                                                                   @RequestParam(name = "cursor", required = false) String cursor,
+                                                                   @RequestParam(name = "state", required = false, defaultValue = "ALL")
+                                                                   String state) {
+        return getBookingsPage(userId, state, "USER", from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public List<SentBookingDto> getAllOwnerBookings(@RequestHeader(value = USER_ID) long userId,
-                                                    @RequestParam(name = "from", required = false) Integer from,
-                                                    @RequestParam(name = "size", required = false) Integer size,
-                                                    @RequestParam(name = "state",
-                                                            required = false, defaultValue = "ALL") String state) {
-        return bookingService.getAllUserBookings(userId, state, "OWNER", from, size);
+    public ResponseEntity<List<SentBookingDto>> getAllOwnerBookings(@RequestHeader(value = USER_ID) long userId,
+                                                                    @RequestParam(name = "from", required = false) Integer from,
+                                                                    @RequestParam(name = "size", required = false) Integer size,
+                                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                                    @RequestParam(name = "state",
+                                                                            required = false, defaultValue = "ALL") String state) {
+        return getBookingsPage(userId, state, "OWNER", from, size, cursor);
     }
 
     @PostMapping()
@@ -56,4 +63,25 @@ public class BookingController {
                                               @RequestHeader(value = USER_ID) long userId) {
         return bookingService.updateBookingStatus(bookingId, approved.toLowerCase(), userId);
     }
+
+    @PatchMapping("/batch")
+    public List<BookingStatusUpdateResultDto> updateBookingStatuses(@RequestBody List<BookingStatusUpdateDto> updates,
+                                                                    @RequestHeader(value = USER_ID) long userId) {
+        return bookingService.updateBookingStatuses(updates, userId);
+    }
+
+    private ResponseEntity<List<SentBookingDto>> getBookingsPage(long userId, String state, String userType,
+                                                                 Integer from, Integer size, String cursor) {
+        List<SentBookingDto> bookings = cursor == null
+                ? bookingService.getAllUserBookings(userId, state, userType, from, size)
+                : bookingService.getAllUserBookingsByCursor(userId, state, userType, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (size != null && size > 0 && bookings.size() == size) {
+            SentBookingDto last = bookings.get(bookings.size() - 1);
+            if (last.getStart() != null && last.getId() != null) {
+                response.header(NEXT_CURSOR, BookingCursor.after(last).encode());
+            }
+        }
+        return response.body(bookings);
+    }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+public final class BookingMapper {
+    private BookingMapper() {
+    }
+
+    public static SentBookingDto toSentBookingDto(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        SentBookingDto bookingDto = new SentBookingDto();
+        bookingDto.setId(booking.getId());
+        bookingDto.setStart(booking.getStart());
+        bookingDto.setEnd(booking.getEnd());
+        bookingDto.setStatus(booking.getStatus());
+        if (booking.getBooker() != null) {
+            bookingDto.setBooker(new BookerDto(booking.getBooker().getId()));
+        }
+        if (booking.getItem() != null) {
+            bookingDto.setItem(new BookingItemDto(booking.getItem().getId(), booking.getItem().getName()));
+        }
+        return bookingDto;
+    }
+
+    public static Booking toBooking(ReceivedBookingDto bookingDto) {
+        if (bookingDto == null) {
+            return null;
+        }
+        Booking booking = new Booking();
+        booking.setStart(bookingDto.getStart());
+        booking.setEnd(bookingDto.getEnd());
+        return booking;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.BookingUpdateResult;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusUpdateResultDto {
+    private Long bookingId;
+
+    private BookingUpdateResult result;
+
+    private BookingStatus status;
+}
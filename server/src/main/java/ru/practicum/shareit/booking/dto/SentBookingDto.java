@@ -1,18 +1,32 @@
 package ru.practicum.shareit.booking.dto;
 
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.util.BookingStatus;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class SentBookingDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
     private BookingStatus status;
-    private User booker;
-    private Item item;
+    private BookerDto booker;
+    private BookingItemDto item;
+
+    /**
+     * Used by the JPQL constructor expressions in BookingRepository, so booking lists are read in one query
+     * without loading the booker and item entities.
+     */
+    public SentBookingDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long bookerId, Long itemId, String itemName) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.booker = bookerId == null ? null : new BookerDto(bookerId);
+        this.item = itemId == null ? null : new BookingItemDto(itemId, itemName);
+    }
 }
@@ -17,7 +17,14 @@ import java.util.Objects;
 @Setter
 @ToString(exclude = {"item", "booker"})
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_booker_start", columnList = "booker_id, start_date"),
+        @Index(name = "idx_bookings_booker_end", columnList = "booker_id, end_date"),
+        @Index(name = "idx_bookings_booker_status_start", columnList = "booker_id, status, start_date"),
+        @Index(name = "idx_bookings_item_start", columnList = "item_id, start_date"),
+        @Index(name = "idx_bookings_item_end", columnList = "item_id, end_date"),
+        @Index(name = "idx_bookings_item_status_start", columnList = "item_id, status, start_date")
+})
 @NoArgsConstructor
 public class Booking {
     @Id
@@ -40,6 +47,10 @@ public class Booking {
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     private BookingStatus status = BookingStatus.WAITING;
+    @JsonIgnore
+    @Version
+    @Column(name = "version")
+    private Long version;
 
 
     @Override
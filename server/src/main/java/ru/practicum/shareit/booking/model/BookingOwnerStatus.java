@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.model;
+
+import ru.practicum.shareit.util.BookingStatus;
+
+public interface BookingOwnerStatus {
+    Long getId();
+
+    BookingStatus getStatus();
+
+    Long getOwnerId();
+}
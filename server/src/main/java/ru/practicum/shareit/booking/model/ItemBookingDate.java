@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public interface ItemBookingDate extends BookingDate {
+    @JsonIgnore
+    Long getItemId();
+}
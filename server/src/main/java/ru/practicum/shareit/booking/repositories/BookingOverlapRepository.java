@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.repositories;
+
+import java.time.LocalDateTime;
+
+public interface BookingOverlapRepository {
+    /**
+     * @return whether a booking of the item that is not rejected overlaps {@code [start, end)}
+     */
+    boolean existsOverlappingBooking(long itemId, LocalDateTime start, LocalDateTime end);
+}
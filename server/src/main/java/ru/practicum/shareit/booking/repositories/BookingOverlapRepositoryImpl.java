@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import ru.practicum.shareit.util.BookingStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.time.LocalDateTime;
+
+/**
+ * On Postgres the check is written like the ex_bookings_item_period exclusion constraint, so it is answered
+ * from the constraint's GiST index instead of scanning every earlier booking of the item; other databases get
+ * the plain interval comparison.
+ */
+public class BookingOverlapRepositoryImpl implements BookingOverlapRepository {
+    private static final String OVERLAPPING_RANGE = "SELECT b.id FROM bookings b " +
+            "WHERE b.item_id = :itemId AND b.status <> 'REJECTED' " +
+            "AND tsrange(b.start_date, b.end_date) && tsrange(:start, :end)";
+    private static final String OVERLAPPING_INTERVAL = "SELECT b.id FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status <> :rejected AND b.start < :end AND b.end > :start";
+
+    private final EntityManager entityManager;
+    private final boolean exclusionConstraint;
+
+    @Autowired
+    public BookingOverlapRepositoryImpl(EntityManager entityManager,
+                                        @Value("${shareit.booking.exclusion-constraint:false}") boolean exclusionConstraint) {
+        this.entityManager = entityManager;
+        this.exclusionConstraint = exclusionConstraint;
+    }
+
+    @Override
+    public boolean existsOverlappingBooking(long itemId, LocalDateTime start, LocalDateTime end) {
+        Query query = exclusionConstraint
+                ? entityManager.createNativeQuery(OVERLAPPING_RANGE)
+                : entityManager.createQuery(OVERLAPPING_INTERVAL).setParameter("rejected", BookingStatus.REJECTED);
+        return !query.setParameter("itemId", itemId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+}
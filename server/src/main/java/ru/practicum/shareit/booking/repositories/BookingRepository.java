@@ -3,57 +3,143 @@ package ru.practicum.shareit.booking.repositories;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingDate;
+import ru.practicum.shareit.booking.model.BookingOwnerStatus;
+import ru.practicum.shareit.booking.model.ItemBookingDate;
+import ru.practicum.shareit.util.BookingState;
 import ru.practicum.shareit.util.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :userId " +
-            "AND (:state = 'CURRENT' AND :now BETWEEN b.start AND b.end " +
-            "OR :state = 'PAST' AND b.end < :now " +
-            "OR :state = 'FUTURE' AND b.start > :now " +
-            "OR :state = 'WAITING' AND b.status = 'WAITING' " +
-            "OR :state = 'REJECTED' AND b.status = 'REJECTED' " +
-            "OR :state = 'ALL') " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllUserBookingsByState(@Param("userId") Long userId, @Param("state") String state, @Param("now") LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner = :ownerId " +
-            "AND (:state = 'CURRENT' AND :now BETWEEN b.start AND b.end " +
-            "OR :state = 'PAST' AND b.end < :now " +
-            "OR :state = 'FUTURE' AND b.start > :now " +
-            "OR :state = 'WAITING' AND b.status = 'WAITING' " +
-            "OR :state = 'REJECTED' AND b.status = 'REJECTED' " +
-            "OR :state = 'ALL') " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllOwnerBookingsByState(@Param("ownerId") Long ownerId, @Param("state") String state, @Param("now") LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :userId " +
-            "AND (:state = 'CURRENT' AND :now BETWEEN b.start AND b.end " +
-            "OR :state = 'PAST' AND b.end < :now " +
-            "OR :state = 'FUTURE' AND b.start > :now " +
-            "OR :state = 'WAITING' AND b.status = 'WAITING' " +
-            "OR :state = 'REJECTED' AND b.status = 'REJECTED' " +
-            "OR :state = 'ALL') " +
-            "ORDER BY b.start DESC")
-    Slice<Booking> findAllUserBookingsByState(@Param("userId") Long userId, @Param("state") String state, @Param("now") LocalDateTime now, Pageable pageable);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner = :ownerId " +
-            "AND (:state = 'CURRENT' AND :now  BETWEEN b.start AND b.end " +
-            "OR :state = 'PAST' AND b.end < :now " +
-            "OR :state = 'FUTURE' AND b.start > :now " +
-            "OR :state = 'WAITING' AND b.status = 'WAITING' " +
-            "OR :state = 'REJECTED' AND b.status = 'REJECTED' " +
-            "OR :state = 'ALL') " +
-            "ORDER BY b.start DESC")
-    Slice<Booking> findAllOwnerBookingsByState(@Param("ownerId") Long ownerId, @Param("state") String state, @Param("now") LocalDateTime now, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingStatusBatchRepository,
+        BookingOverlapRepository {
+    String SELECT_USER_BOOKINGS = "SELECT new ru.practicum.shareit.booking.dto.SentBookingDto(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, i.id, i.name) FROM Booking b LEFT JOIN b.item i ";
+    String SELECT_OWNER_BOOKINGS = "SELECT new ru.practicum.shareit.booking.dto.SentBookingDto(" +
+            "b.id, b.start, b.end, b.status, b.booker.id, i.id, i.name) FROM Booking b JOIN b.item i ";
+    String AFTER_CURSOR = " AND b.start <= :afterStart AND (b.start < :afterStart OR b.id < :afterId)" +
+            " ORDER BY b.start DESC, b.id DESC";
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.id = :bookingId")
+    Optional<SentBookingDto> findSentBookingDtoById(@Param("bookingId") Long bookingId);
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.booker.id = :userId" + AFTER_CURSOR)
+    Slice<SentBookingDto> findAllUserBookings(@Param("userId") Long userId,
+                                              @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.booker.id = :userId AND b.start <= :now AND b.end >= :now" + AFTER_CURSOR)
+    Slice<SentBookingDto> findCurrentUserBookings(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                                  @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.booker.id = :userId AND b.end < :now" + AFTER_CURSOR)
+    Slice<SentBookingDto> findPastUserBookings(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                               @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.booker.id = :userId AND b.start > :now" + AFTER_CURSOR)
+    Slice<SentBookingDto> findFutureUserBookings(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                                 @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    @Query(SELECT_USER_BOOKINGS + "WHERE b.booker.id = :userId AND b.status = :status" + AFTER_CURSOR)
+    Slice<SentBookingDto> findUserBookingsByStatus(@Param("userId") Long userId, @Param("status") BookingStatus status,
+                                                   @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @Query(SELECT_OWNER_BOOKINGS + "WHERE i.owner = :ownerId" + AFTER_CURSOR)
+    Slice<SentBookingDto> findAllOwnerBookings(@Param("ownerId") Long ownerId,
+                                               @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Query(SELECT_OWNER_BOOKINGS + "WHERE i.owner = :ownerId AND b.start <= :now AND b.end >= :now" +
+            AFTER_CURSOR)
+    Slice<SentBookingDto> findCurrentOwnerBookings(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                   @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @Query(SELECT_OWNER_BOOKINGS + "WHERE i.owner = :ownerId AND b.end < :now" + AFTER_CURSOR)
+    Slice<SentBookingDto> findPastOwnerBookings(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    @Query(SELECT_OWNER_BOOKINGS + "WHERE i.owner = :ownerId AND b.start > :now" + AFTER_CURSOR)
+    Slice<SentBookingDto> findFutureOwnerBookings(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                  @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    @Query(SELECT_OWNER_BOOKINGS + "WHERE i.owner = :ownerId AND b.status = :status" + AFTER_CURSOR)
+    Slice<SentBookingDto> findOwnerBookingsByStatus(@Param("ownerId") Long ownerId, @Param("status") BookingStatus status,
+                                                    @Param("afterStart") LocalDateTime afterStart, @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    default List<SentBookingDto> findAllUserBookingsByState(Long userId, String state, LocalDateTime now) {
+        return findAllUserBookingsByState(userId, state, now, Pageable.unpaged()).getContent();
+    }
+
+    default Slice<SentBookingDto> findAllUserBookingsByState(Long userId, String state, LocalDateTime now, Pageable pageable) {
+        return findAllUserBookingsByState(userId, state, now, BookingCursor.FIRST, pageable);
+    }
+
+    default Slice<SentBookingDto> findAllUserBookingsByState(Long userId, String state, LocalDateTime now,
+                                                             BookingCursor after, Pageable pageable) {
+        LocalDateTime afterStart = after.getStart();
+        Long afterId = after.getId();
+        switch (BookingState.valueOf(state)) {
+            case CURRENT:
+                return findCurrentUserBookings(userId, now, afterStart, afterId, pageable);
+            case PAST:
+                return findPastUserBookings(userId, now, afterStart, afterId, pageable);
+            case FUTURE:
+                return findFutureUserBookings(userId, now, afterStart, afterId, pageable);
+            case WAITING:
+                return findUserBookingsByStatus(userId, BookingStatus.WAITING, afterStart, afterId, pageable);
+            case REJECTED:
+                return findUserBookingsByStatus(userId, BookingStatus.REJECTED, afterStart, afterId, pageable);
+            default:
+                return findAllUserBookings(userId, afterStart, afterId, pageable);
+        }
+    }
+
+    default List<SentBookingDto> findAllOwnerBookingsByState(Long ownerId, String state, LocalDateTime now) {
+        return findAllOwnerBookingsByState(ownerId, state, now, Pageable.unpaged()).getContent();
+    }
+
+    default Slice<SentBookingDto> findAllOwnerBookingsByState(Long ownerId, String state, LocalDateTime now, Pageable pageable) {
+        return findAllOwnerBookingsByState(ownerId, state, now, BookingCursor.FIRST, pageable);
+    }
+
+    default Slice<SentBookingDto> findAllOwnerBookingsByState(Long ownerId, String state, LocalDateTime now,
+                                                              BookingCursor after, Pageable pageable) {
+        LocalDateTime afterStart = after.getStart();
+        Long afterId = after.getId();
+        switch (BookingState.valueOf(state)) {
+            case CURRENT:
+                return findCurrentOwnerBookings(ownerId, now, afterStart, afterId, pageable);
+            case PAST:
+                return findPastOwnerBookings(ownerId, now, afterStart, afterId, pageable);
+            case FUTURE:
+                return findFutureOwnerBookings(ownerId, now, afterStart, afterId, pageable);
+            case WAITING:
+                return findOwnerBookingsByStatus(ownerId, BookingStatus.WAITING, afterStart, afterId, pageable);
+            case REJECTED:
+                return findOwnerBookingsByStatus(ownerId, BookingStatus.REJECTED, afterStart, afterId, pageable);
+            default:
+                return findAllOwnerBookings(ownerId, afterStart, afterId, pageable);
+        }
+    }
 
     @Query(value = "SELECT b.id, b.start_date AS bookingDate, b.booker_id AS bookerId " +
             "FROM bookings b WHERE b.item_id = ?1 AND b.start_date < ?2 " +
@@ -67,13 +153,28 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     boolean existsBookingByBooker_IdAndItem_IdAndStatusAndStartBefore(Long userId, Long itemId, BookingStatus status, LocalDateTime startDate);
 
-    @Query(value = "SELECT b.id, b.start_date AS bookingDate, b.booker_id AS bookerId " +
-            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date > ?2 AND NOT b.status = 'REJECTED' " +
-            "ORDER BY b.start_date LIMIT 1", nativeQuery = true)
-    List<BookingDate> findAllNextBooking(List<Long> itemsId, LocalDateTime currentTime);
+    @Query("SELECT b.id AS id, b.status AS status, i.owner AS ownerId FROM Booking b JOIN b.item i " +
+            "WHERE b.id IN :bookingIds")
+    List<BookingOwnerStatus> findOwnerStatusesByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
 
-    @Query(value = "SELECT b.id, b.start_date AS bookingDate, b.booker_id AS bookerId " +
-            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date < ?2 " +
-            "ORDER BY b.start_date DESC LIMIT 1", nativeQuery = true)
-    List<BookingDate> findAllLastBooking(List<Long> itemsId, LocalDateTime currentTime);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId AND b.status = ru.practicum.shareit.util.BookingStatus.WAITING " +
+            "AND EXISTS (SELECT i FROM Item i WHERE i.id = b.item.id AND i.owner = :ownerId)")
+    int updateWaitingBookingStatus(@Param("bookingId") Long bookingId, @Param("status") BookingStatus status,
+                                   @Param("ownerId") Long ownerId);
+
+    @Query(value = "SELECT t.id, t.bookingDate, t.bookerId, t.itemId FROM (" +
+            "SELECT b.id, b.start_date AS bookingDate, b.booker_id AS bookerId, b.item_id AS itemId, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date > ?2 AND NOT b.status = 'REJECTED') t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingDate> findAllNextBooking(List<Long> itemsId, LocalDateTime currentTime);
+
+    @Query(value = "SELECT t.id, t.bookingDate, t.bookerId, t.itemId FROM (" +
+            "SELECT b.id, b.start_date AS bookingDate, b.booker_id AS bookerId, b.item_id AS itemId, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (?1) AND b.start_date < ?2) t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingDate> findAllLastBooking(List<Long> itemsId, LocalDateTime currentTime);
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.repositories;
+
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+
+import java.util.List;
+
+public interface BookingStatusBatchRepository {
+    int[] updateWaitingBookingStatuses(List<BookingStatusUpdateDto> updates, long ownerId);
+}
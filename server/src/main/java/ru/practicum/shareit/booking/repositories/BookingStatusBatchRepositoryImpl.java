@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.util.BookingStatus;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+public class BookingStatusBatchRepositoryImpl implements BookingStatusBatchRepository {
+    private static final String UPDATE_WAITING_STATUS = "UPDATE bookings SET status = ?, version = version + 1 " +
+            "WHERE id = ? AND status = 'WAITING' AND item_id IN (SELECT i.id FROM items i WHERE i.owner_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public BookingStatusBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int[] updateWaitingBookingStatuses(List<BookingStatusUpdateDto> updates, long ownerId) {
+        entityManager.flush();
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_WAITING_STATUS, updates, updates.size(), (ps, update) -> {
+            BookingStatus status = update.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            ps.setString(1, status.name());
+            ps.setLong(2, update.getBookingId());
+            ps.setLong(3, ownerId);
+        });
+        entityManager.clear();
+        return updated[0];
+    }
+}
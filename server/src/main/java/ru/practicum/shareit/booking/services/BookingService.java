@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.services;
 
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 
@@ -12,7 +14,11 @@ public interface BookingService {
 
     List<SentBookingDto> getAllUserBookings(long userId, String state, String user, Integer from, Integer size);
 
+    List<SentBookingDto> getAllUserBookingsByCursor(long userId, String state, String user, String cursor, Integer size);
+
     SentBookingDto createBooking(ReceivedBookingDto bookingDto, long userId);
 
     SentBookingDto updateBookingStatus(long bookingId, String approved, long userId);
+
+    List<BookingStatusUpdateResultDto> updateBookingStatuses(List<BookingStatusUpdateDto> updates, long userId);
 }
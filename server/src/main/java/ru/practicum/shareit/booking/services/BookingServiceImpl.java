@@ -1,14 +1,19 @@
 package ru.practicum.shareit.booking.services;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingOwnerStatus;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.exceptions.*;
 import ru.practicum.shareit.item.model.Item;
@@ -16,10 +21,18 @@ import ru.practicum.shareit.item.services.ItemService;
 import ru.practicum.shareit.user.services.UserService;
 import ru.practicum.shareit.util.BookingState;
 import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.BookingUpdateResult;
 
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,17 +40,19 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemService itemService;
     private final UserService userService;
-    private final ModelMapper mapper;
+    private final ItemLockManager itemLockManager;
     private static final String USER = "USER";
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               ItemService itemService, UserService userService,
-                              ModelMapper mapper) {
+                              ItemLockManager itemLockManager) {
         this.bookingRepository = bookingRepository;
         this.itemService = itemService;
         this.userService = userService;
-        this.mapper = mapper;
+        this.itemLockManager = itemLockManager;
     }
 
     @Override
@@ -54,14 +69,27 @@ public class BookingServiceImpl implements BookingService {
 
     @Transactional(readOnly = true)
     public List<SentBookingDto> getAllUserBookings(long userId, String state, String userType, Integer from, Integer size) {
-        if (Arrays.stream(BookingState.values()).noneMatch(enumState -> enumState.name().equals(state))) {
-            throw new UnsupportedStatus("Unknown state");
-        }
-        userService.isExistUser(userId);
-        List<Booking> bookings = (from == null && size == null)
+        isValidBookingsRequest(userId, state);
+        return (from == null && size == null)
                 ? getAllUserBookingsWithoutPagination(userId, state, userType)
                 : getAllUserBookingsWithPagination(userId, state, userType, from, size);
-        return convertListBookingToDto(bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SentBookingDto> getAllUserBookingsByCursor(long userId, String state, String userType,
+                                                           String cursor, Integer size) {
+        isValidBookingsRequest(userId, state);
+        if (size == null || size <= 0) {
+            throw new BadRequest("Request without pagination");
+        }
+        BookingCursor after = BookingCursor.decode(cursor);
+        PageRequest pageRequest = PageRequest.of(0, size);
+        LocalDateTime now = getCurrentTime();
+        Slice<SentBookingDto> bookingsSlice = userType.equals(USER)
+                ? bookingRepository.findAllUserBookingsByState(userId, state, now, after, pageRequest)
+                : bookingRepository.findAllOwnerBookingsByState(userId, state, now, after, pageRequest);
+        return bookingsSlice.toList();
     }
 
     @Transactional
@@ -72,16 +100,90 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = convertDtoToBooking(bookingDto);
         booking.setItem(item);
         booking.setBooker(userService.getUserById(userId));
-        return convertBookingToDto(bookingRepository.save(booking));
+        itemLockManager.lockItem(item.getId());
+        isValidBookingIntervalRequest(booking);
+        try {
+            return convertBookingToDto(bookingRepository.save(booking));
+        } catch (DataIntegrityViolationException e) {
+            if (isExclusionViolation(e)) {
+                throw new BookingConflict("Item " + item.getId() + " is already booked for this time");
+            }
+            throw e;
+        }
     }
 
     @Transactional
     public SentBookingDto updateBookingStatus(long bookingId, String approved, long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        if (bookingRepository.updateWaitingBookingStatus(bookingId, getBookingStatus(approved), userId) == 0) {
+            Booking booking = getBookingById(bookingId);
+            isValidUpdateBookingStatusRequest(booking, userId, bookingId);
+            throw new BookingStatusAlreadySet("Booking status already set: " + bookingId);
+        }
+        return bookingRepository.findSentBookingDtoById(bookingId)
+                .orElseThrow(() -> new EntityNotFound("Booking not found: " + bookingId));
+    }
+
+    @Override
+    @Transactional
+    public List<BookingStatusUpdateResultDto> updateBookingStatuses(List<BookingStatusUpdateDto> updates, long userId) {
+        isValidBookingStatusUpdatesRequest(updates);
+        int[] updated = bookingRepository.updateWaitingBookingStatuses(updates, userId);
+        Set<Long> bookingIds = updates.stream()
+                .map(BookingStatusUpdateDto::getBookingId)
+                .collect(Collectors.toSet());
+        Map<Long, BookingOwnerStatus> bookings = bookingRepository.findOwnerStatusesByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingOwnerStatus::getId, Function.identity()));
+        List<BookingStatusUpdateResultDto> results = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            BookingStatusUpdateDto update = updates.get(i);
+            BookingOwnerStatus booking = bookings.get(update.getBookingId());
+            results.add(getBookingUpdateResult(update.getBookingId(), booking,
+                    isUpdated(updated[i], update, booking), userId));
+        }
+        return results;
+    }
+
+    /**
+     * A driver may run a batched statement without counting its rows and report {@link Statement#SUCCESS_NO_INFO};
+     * the booking was then updated if it now has the requested status.
+     */
+    private static boolean isUpdated(int count, BookingStatusUpdateDto update, BookingOwnerStatus booking) {
+        if (count == Statement.SUCCESS_NO_INFO) {
+            BookingStatus requested = update.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            return booking != null && booking.getStatus() == requested;
+        }
+        return count > 0;
+    }
+
+    private BookingStatusUpdateResultDto getBookingUpdateResult(Long bookingId, BookingOwnerStatus booking,
+                                                                boolean updated, long userId) {
+        // a booking of someone else's item is reported like a missing one, as updateBookingStatus answers 404
+        if (booking == null || booking.getOwnerId() == null || booking.getOwnerId() != userId) {
+            return new BookingStatusUpdateResultDto(bookingId, BookingUpdateResult.NOT_FOUND, null);
+        }
+        return new BookingStatusUpdateResultDto(bookingId,
+                updated ? BookingUpdateResult.UPDATED : BookingUpdateResult.STATUS_ALREADY_SET, booking.getStatus());
+    }
+
+    private void isValidBookingStatusUpdatesRequest(List<BookingStatusUpdateDto> updates) {
+        if (updates == null || updates.isEmpty() || updates.size() > MAX_BATCH_SIZE) {
+            throw new BadRequest("Batch must contain from 1 to " + MAX_BATCH_SIZE + " updates");
+        }
+        if (updates.stream().anyMatch(update -> update.getBookingId() == null || update.getApproved() == null)) {
+            throw new BadRequest("Not valid fields");
+        }
+    }
+
+    private Booking getBookingById(long bookingId) {
+        return bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new EntityNotFound("Booking not found: " + bookingId));
-        isValidUpdateBookingStatusRequest(booking, userId, bookingId);
-        setBookingStatus(booking, approved);
-        return convertBookingToDto(bookingRepository.save(booking));
+    }
+
+    private void isValidBookingsRequest(long userId, String state) {
+        if (Arrays.stream(BookingState.values()).noneMatch(enumState -> enumState.name().equals(state))) {
+            throw new UnsupportedStatus("Unknown state");
+        }
+        userService.isExistUser(userId);
     }
 
     private void isValidBookingTimeRequest(ReceivedBookingDto bookingDto) {
@@ -104,6 +206,22 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void isValidBookingIntervalRequest(Booking booking) {
+        // stored timestamps keep microseconds; compare the interval as it will be stored, not as it was sent
+        if (bookingRepository.existsOverlappingBooking(booking.getItem().getId(),
+                booking.getStart().truncatedTo(ChronoUnit.MICROS), booking.getEnd().truncatedTo(ChronoUnit.MICROS))) {
+            throw new BookingConflict("Item " + booking.getItem().getId() + " is already booked for this time");
+        }
+    }
+
+    /**
+     * Only the ex_bookings_item_period exclusion constraint raises 23P01; other violations are not conflicts.
+     */
+    private static boolean isExclusionViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState());
+    }
+
     private void isValidUpdateBookingStatusRequest(Booking booking, long userId, long bookingId) {
         if (booking.getItem().getOwner() != userId) {
             throw new InappropriateUser("Inappropriate User: " + userId);
@@ -113,49 +231,39 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private List<Booking> getAllUserBookingsWithPagination(long userId, String state, String userType, Integer from, Integer size) {
+    private List<SentBookingDto> getAllUserBookingsWithPagination(long userId, String state, String userType, Integer from, Integer size) {
         if ((from == 0 && size == 0) || (from < 0 || size < 0)) {
             throw new BadRequest("Request without pagination");
         }
         PageRequest pageRequest = PageRequest.of(from / size, size);
-        Slice<Booking> bookingsSlice = getBookingSlice(userId, state, userType, pageRequest);
+        Slice<SentBookingDto> bookingsSlice = getBookingSlice(userId, state, userType, pageRequest);
         return bookingsSlice.toList();
     }
 
-    private Slice<Booking> getBookingSlice(long userId, String state, String userType, PageRequest pageRequest) {
+    private Slice<SentBookingDto> getBookingSlice(long userId, String state, String userType, PageRequest pageRequest) {
         LocalDateTime now = getCurrentTime();
         return userType.equals(USER)
                 ? bookingRepository.findAllUserBookingsByState(userId, state, now, pageRequest)
                 : bookingRepository.findAllOwnerBookingsByState(userId, state, now, pageRequest);
     }
 
-    private List<Booking> getAllUserBookingsWithoutPagination(long userId, String state, String userType) {
+    private List<SentBookingDto> getAllUserBookingsWithoutPagination(long userId, String state, String userType) {
         LocalDateTime now = getCurrentTime();
         return userType.equals(USER)
                 ? bookingRepository.findAllUserBookingsByState(userId, state, now)
                 : bookingRepository.findAllOwnerBookingsByState(userId, state, now);
     }
 
-    private void setBookingStatus(Booking booking, String approved) {
-        if (approved.equals("true")) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus((BookingStatus.REJECTED));
-        }
+    private BookingStatus getBookingStatus(String approved) {
+        return approved.equals("true") ? BookingStatus.APPROVED : BookingStatus.REJECTED;
     }
 
     private SentBookingDto convertBookingToDto(Booking booking) {
-        return mapper.map(booking, SentBookingDto.class);
+        return BookingMapper.toSentBookingDto(booking);
     }
 
     private Booking convertDtoToBooking(ReceivedBookingDto receivedBookingDto) {
-        return mapper.map(receivedBookingDto, Booking.class);
-    }
-
-    private List<SentBookingDto> convertListBookingToDto(List<Booking> bookings) {
-        return bookings.stream()
-                .map(this::convertBookingToDto)
-                .collect(Collectors.toList());
+        return BookingMapper.toBooking(receivedBookingDto);
     }
 
     private LocalDateTime getCurrentTime() {
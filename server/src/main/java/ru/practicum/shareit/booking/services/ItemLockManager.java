@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes booking admission per item. Locks are held until the surrounding transaction completes:
+ * an in-process stripe guards threads of this node, a Postgres advisory lock guards other replicas.
+ */
+@Component
+public class ItemLockManager {
+    private static final String ADVISORY_LOCK = "SELECT CAST(pg_advisory_xact_lock(:itemId) AS VARCHAR)";
+
+    private final EntityManager entityManager;
+    private final boolean advisoryLocks;
+    private final Lock[] stripes;
+
+    @Autowired
+    public ItemLockManager(EntityManager entityManager,
+                           @Value("${shareit.booking.lock-stripes:64}") int stripes,
+                           @Value("${shareit.booking.advisory-locks:false}") boolean advisoryLocks) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Lock stripes must be positive: " + stripes);
+        }
+        this.entityManager = entityManager;
+        this.advisoryLocks = advisoryLocks;
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockItem(long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item lock requires an active transaction");
+        }
+        Lock lock = stripe(itemId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+        if (advisoryLocks) {
+            entityManager.createNativeQuery(ADVISORY_LOCK)
+                    .setParameter("itemId", itemId)
+                    .getSingleResult();
+        }
+    }
+
+    Lock stripe(long itemId) {
+        return stripes[Math.floorMod(Long.hashCode(itemId), stripes.length)];
+    }
+}
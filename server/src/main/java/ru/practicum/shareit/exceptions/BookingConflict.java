@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class BookingConflict extends RuntimeException {
+    public BookingConflict(String message) {
+        super(message);
+    }
+}
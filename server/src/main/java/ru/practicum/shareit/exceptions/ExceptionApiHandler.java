@@ -1,9 +1,10 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.spi.ErrorMessage;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -22,6 +23,14 @@ public class ExceptionApiHandler {
                 .body(new ErrorMessage("Already used email:" + e.getMessage()));
     }
 
+    @ExceptionHandler(BookingConflict.class)
+    public ResponseEntity<ErrorMessage> bookingConflict(BookingConflict e) {
+        log.error("booking conflict: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorMessage(e.getMessage()));
+    }
+
     @ExceptionHandler({InappropriateUser.class, EntityNotFound.class})
     public ResponseEntity<ErrorMessage> notFound(RuntimeException e) {
         return ResponseEntity
@@ -36,6 +45,14 @@ public class ExceptionApiHandler {
                 .body(new ErrorMessage(e.getMessage()));
     }
 
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class})
+    public ResponseEntity<ErrorMessage> deadlineExceeded(RuntimeException e) {
+        log.warn("request deadline exceeded: " + e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(new ErrorMessage("Request deadline exceeded"));
+    }
+
     @ExceptionHandler(UnsupportedStatus.class)
     public ResponseEntity<ErrorResponse> unsupportedStatus(UnsupportedStatus e, HttpServletRequest request) {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
@@ -1,12 +1,19 @@
 package ru.practicum.shareit.item.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.services.ItemService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,10 +21,12 @@ import java.util.List;
 public class ItemController {
     private static final String USER_ID = "X-Sharer-User-Id";
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -35,8 +44,24 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItemsByText(@RequestParam String text) {
-        return itemService.searchItemByText(text);
+    public List<ItemDto> searchItemsByText(@RequestParam String text,
+                                           @RequestParam(name = "from", required = false) Integer from,
+                                           @RequestParam(name = "size", required = false) Integer size) {
+        return itemService.searchItemByText(text, from, size);
+    }
+
+    @GetMapping(value = "/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportItemsByText(@RequestParam String text) {
+        StreamingResponseBody body = out -> itemService.exportItemsByText(text, items -> writeLines(out, items));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(name = "size", required = false) Integer size) {
+        return itemService.suggestItemNames(prefix, size);
     }
 
 
@@ -65,4 +90,16 @@ public class ItemController {
         itemService.deleteItem(id);
     }
 
+    private void writeLines(OutputStream out, List<ItemDto> items) {
+        try {
+            for (ItemDto item : items) {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
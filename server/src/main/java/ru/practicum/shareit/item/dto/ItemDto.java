@@ -2,11 +2,10 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.Data;
 import ru.practicum.shareit.booking.model.BookingDate;
-import ru.practicum.shareit.item.model.Comment;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
-import java.util.Set;
+import java.util.List;
 
 @Data
 public class ItemDto {
@@ -21,7 +20,7 @@ public class ItemDto {
     private BookingDate lastBooking;
     private BookingDate nextBooking;
 
-    private Set<Comment> comments;
+    private List<CommentDto> comments;
 
     private Long requestId;
 
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.dto;
+
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+public final class ItemMapper {
+    private ItemMapper() {
+    }
+
+    public static ItemDto toItemDto(Item item) {
+        if (item == null) {
+            return null;
+        }
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(item.getId());
+        itemDto.setName(item.getName());
+        itemDto.setDescription(item.getDescription());
+        itemDto.setAvailable(item.getAvailable());
+        itemDto.setRequestId(item.getRequestId());
+        return itemDto;
+    }
+
+    public static Item toItem(ItemDto itemDto) {
+        if (itemDto == null) {
+            return null;
+        }
+        Item item = new Item();
+        item.setId(itemDto.getId());
+        item.setName(itemDto.getName());
+        item.setDescription(itemDto.getDescription());
+        item.setAvailable(itemDto.getAvailable());
+        item.setRequestId(itemDto.getRequestId());
+        return item;
+    }
+
+    public static CommentDto toCommentDto(Comment comment) {
+        if (comment == null) {
+            return null;
+        }
+        CommentDto commentDto = new CommentDto();
+        commentDto.setId(comment.getId());
+        commentDto.setText(comment.getText());
+        commentDto.setAuthorName(comment.getAuthorName());
+        commentDto.setCreated(comment.getCreated());
+        return commentDto;
+    }
+}
@@ -13,7 +13,7 @@ import java.util.Set;
 @Setter
 @ToString()
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = @Index(name = "idx_items_owner", columnList = "owner_id"))
 @NoArgsConstructor
 public class Item {
     @Id
@@ -7,16 +7,68 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String SEARCH_MATCH = "SELECT * FROM items " +
+            "WHERE (name ILIKE ?1 ESCAPE '\\' OR description ILIKE ?1 ESCAPE '\\') AND is_available = TRUE ";
+    String SEARCH_RANK = "ORDER BY CASE WHEN name ILIKE ?2 ESCAPE '\\' THEN 0 " +
+            "WHEN name ILIKE ?1 ESCAPE '\\' THEN 1 ELSE 2 END, id";
+
     List<Item> findAllByOwner(long ownerId);
 
     Slice<Item> findAllByOwner(long ownerId, Pageable pageable);
 
-    @Query(value = "SELECT * FROM items WHERE (name ILIKE CONCAT('%',?1,'%') OR description ILIKE CONCAT('%',?1,'%')) AND " +
-            "is_available = TRUE", nativeQuery = true)
-    List<Item> searchItemByText(String text);
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    Slice<Item> findAllByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Served by the pg_trgm GIN indexes from postgres-constraints.sql; on H2 it falls back to a scan.
+     * Name prefix matches rank first, then other name matches, then description matches.
+     */
+    @Query(value = SEARCH_MATCH + SEARCH_RANK, nativeQuery = true)
+    List<Item> searchItemsByPattern(String containsPattern, String prefixPattern);
+
+    @Query(value = SEARCH_MATCH + SEARCH_RANK, nativeQuery = true)
+    List<Item> searchItemsByPattern(String containsPattern, String prefixPattern, Pageable pageable);
+
+    @Query(value = SEARCH_MATCH + "AND id > ?2 ORDER BY id", nativeQuery = true)
+    List<Item> searchItemsByPatternAfterId(String containsPattern, long afterId, Pageable pageable);
+
+    /**
+     * Names of available items with a word starting with the prefix, most common names first.
+     */
+    @Query(value = "SELECT name FROM items WHERE is_available = TRUE " +
+            "AND (name ILIKE ?1 ESCAPE '\\' OR name ILIKE ?2 ESCAPE '\\') " +
+            "GROUP BY name ORDER BY COUNT(*) DESC, name", nativeQuery = true)
+    List<String> suggestNamesByPattern(String prefixPattern, String wordPrefixPattern, Pageable pageable);
+
+    default List<String> suggestItemNames(String prefix, Pageable pageable) {
+        String escaped = escapeLikePattern(prefix);
+        return suggestNamesByPattern(escaped + "%", "% " + escaped + "%", pageable);
+    }
+
+    default List<Item> searchItemByText(String text) {
+        String escaped = escapeLikePattern(text);
+        return searchItemsByPattern("%" + escaped + "%", escaped + "%");
+    }
+
+    default List<Item> searchItemByText(String text, Pageable pageable) {
+        String escaped = escapeLikePattern(text);
+        return searchItemsByPattern("%" + escaped + "%", escaped + "%", pageable);
+    }
+
+    default List<Item> searchItemByTextAfterId(String text, long afterId, Pageable pageable) {
+        return searchItemsByPatternAfterId("%" + escapeLikePattern(text) + "%", afterId, pageable);
+    }
+
+    private static String escapeLikePattern(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
 
 }
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carries item changes between servers, so that the search index and the name suggestions of every server
+ * follow changes committed on any of them. Each change appends the item id to {@code item_changes} in the
+ * changing transaction; every server polls the table and reloads the items it has not seen yet.
+ * <p>
+ * Ids are handed out before commit, so a change can become visible after a later one was read. Ids skipped
+ * that way are polled again until they show up or {@code gap-timeout} passes, which rolled-back changes never
+ * outlive. Rows older than {@code retention} are pruned; a server that could not poll for half that long
+ * rebuilds its index instead of trusting the table.
+ */
+@Slf4j
+@Component
+public class ItemChangeFeed {
+    private static final String INSERT_CHANGE = "INSERT INTO item_changes (item_id) VALUES (?)";
+    private static final String SELECT_CHANGES = "SELECT id, item_id FROM item_changes WHERE id > ?";
+    private static final String SELECT_LAST_ID = "SELECT COALESCE(MAX(id), 0) FROM item_changes";
+    private static final String DELETE_BEFORE = "DELETE FROM item_changes WHERE changed_at < ?";
+    private static final int MAX_GAP = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+    private final boolean enabled;
+    private final Duration interval;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("shareit-item-changes-"));
+
+    private long lastId;
+    private long polledAt;
+    private long prunedAt;
+    private boolean stale;
+
+    @Autowired
+    public ItemChangeFeed(JdbcTemplate jdbcTemplate, ItemRepository itemRepository, ItemSearchIndex searchIndex,
+                          @Value("${shareit.search.change-feed.enabled:true}") boolean enabled,
+                          @Value("${shareit.search.change-feed.interval:1s}") Duration interval,
+                          @Value("${shareit.search.change-feed.gap-timeout:1m}") Duration gapTimeout,
+                          @Value("${shareit.search.change-feed.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemRepository = itemRepository;
+        this.searchIndex = searchIndex;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+    }
+
+    /**
+     * Runs before the index is first built, so that changes committed while it loads are polled again.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        start();
+        scheduler.scheduleWithFixedDelay(this::poll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (enabled) {
+            jdbcTemplate.update(INSERT_CHANGE, event.getItemId());
+        }
+    }
+
+    synchronized void start() {
+        try {
+            lastId = jdbcTemplate.queryForObject(SELECT_LAST_ID, Long.class);
+            gaps.clear();
+            polledAt = System.nanoTime();
+            prunedAt = polledAt;
+            stale = false;
+        } catch (RuntimeException e) {
+            log.warn("Could not read item changes: {}", e.getMessage());
+            stale = true;
+        }
+    }
+
+    synchronized void poll() {
+        long now = System.nanoTime();
+        try {
+            if (stale || now - polledAt > retention.toNanos() / 2) {
+                resync();
+            } else {
+                apply(readChanges(now));
+            }
+            polledAt = now;
+            if (now - prunedAt > retention.toNanos() / 10) {
+                jdbcTemplate.update(DELETE_BEFORE, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+                prunedAt = now;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not poll item changes: {}", e.getMessage());
+        }
+    }
+
+    private void resync() {
+        log.info("Item changes may have been missed, rebuilding the search index");
+        start();
+        if (!stale) {
+            searchIndex.refresh();
+        }
+    }
+
+    private Set<Long> readChanges(long now) {
+        gaps.values().removeIf(missedAt -> now - missedAt > gapTimeoutNanos);
+        StringBuilder sql = new StringBuilder(SELECT_CHANGES);
+        List<Object> args = new ArrayList<>();
+        args.add(lastId);
+        if (!gaps.isEmpty()) {
+            sql.append(" OR id IN (")
+                    .append(String.join(", ", Collections.nCopies(gaps.size(), "?")))
+                    .append(")");
+            args.addAll(gaps.keySet());
+        }
+        sql.append(" ORDER BY id");
+        Set<Long> itemIds = new LinkedHashSet<>();
+        jdbcTemplate.query(sql.toString(), resultSet -> {
+            long id = resultSet.getLong(1);
+            for (long missed = Math.max(lastId + 1, id - MAX_GAP); missed < id; missed++) {
+                gaps.put(missed, now);
+            }
+            gaps.remove(id);
+            lastId = Math.max(lastId, id);
+            itemIds.add(resultSet.getLong(2));
+        }, args.toArray());
+        return itemIds;
+    }
+
+    private void apply(Set<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            Item item = items.get(itemId);
+            ItemChangedEvent event = item == null ? ItemChangedEvent.deleted(itemId) : ItemChangedEvent.of(item);
+            searchIndex.onItemChanged(event);
+        }
+    }
+}
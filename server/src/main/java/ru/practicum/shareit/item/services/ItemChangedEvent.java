@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Snapshot of an item after a committed change. A deleted item is published as unavailable.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemChangedEvent {
+    private final Long itemId;
+    private final String name;
+    private final String description;
+    private final boolean available;
+    private final Long requestId;
+
+    public static ItemChangedEvent of(Item item) {
+        return new ItemChangedEvent(item.getId(), item.getName(), item.getDescription(),
+                Boolean.TRUE.equals(item.getAvailable()), item.getRequestId());
+    }
+
+    public static ItemChangedEvent deleted(long itemId) {
+        return new ItemChangedEvent(itemId, null, null, false, null);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Typeahead trie over item names. Every word start of a lower-cased name is a key, so "dri" completes
+ * "Cordless drill". Each node caches its best completions: names shared by more available items first,
+ * then alphabetically. Not thread-safe, guarded by ItemSearchIndex, which also keeps it current, including
+ * renames made on other servers.
+ */
+final class ItemNameTrie {
+    private final int topK;
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Comparator<String> order = Comparator.comparing((String name) -> -counts.get(name))
+            .thenComparing(Comparator.naturalOrder());
+    private final Node root = new Node();
+
+    ItemNameTrie(int topK) {
+        this.topK = topK;
+    }
+
+    void add(String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        int count = counts.merge(name, 1, Integer::sum);
+        for (String key : keys(name)) {
+            update(root, key, 0, name, count == 1 ? 1 : 0);
+        }
+    }
+
+    void remove(String name) {
+        Integer count = counts.get(name);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            counts.put(name, count - 1);
+        }
+        for (String key : keys(name)) {
+            update(root, key, 0, name, count == 1 ? -1 : 0);
+        }
+        if (count == 1) {
+            counts.remove(name);
+        }
+    }
+
+    List<String> complete(String prefix, int limit) {
+        Node node = root;
+        String key = prefix.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return new ArrayList<>(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    private void update(Node node, String key, int depth, String name, int terminalChange) {
+        if (depth == key.length()) {
+            if (terminalChange > 0) {
+                node.terminals.add(name);
+            } else if (terminalChange < 0) {
+                node.terminals.remove(name);
+            }
+        } else {
+            char label = key.charAt(depth);
+            Node child = node.child(label);
+            if (child == null) {
+                if (terminalChange <= 0) {
+                    return;
+                }
+                child = node.addChild(label);
+            }
+            update(child, key, depth + 1, name, terminalChange);
+            if (child.terminals.isEmpty() && child.labels.length == 0) {
+                node.removeChild(label);
+            }
+        }
+        node.top = best(node);
+    }
+
+    private List<String> best(Node node) {
+        Set<String> candidates = new TreeSet<>(order);
+        candidates.addAll(node.terminals);
+        for (Node child : node.children) {
+            candidates.addAll(child.top);
+        }
+        List<String> top = new ArrayList<>(Math.min(topK, candidates.size()));
+        for (String candidate : candidates) {
+            if (top.size() == topK) {
+                break;
+            }
+            top.add(candidate);
+        }
+        return top;
+    }
+
+    private static Set<String> keys(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < lowerName.length(); i++) {
+            boolean wordStart = i == 0 || Character.isWhitespace(lowerName.charAt(i - 1));
+            if (wordStart && !Character.isWhitespace(lowerName.charAt(i))) {
+                keys.add(lowerName.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private final Set<String> terminals = new LinkedHashSet<>(1);
+        private List<String> top = List.of();
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char label) {
+            int insertAt = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
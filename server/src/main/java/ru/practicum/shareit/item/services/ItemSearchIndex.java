@@ -0,0 +1,326 @@
+package ru.practicum.shareit.item.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index of available items. Answers the same case-insensitive substring search as
+ * {@link ItemRepository#searchItemByText(String)}, with the same ranking, without a database round trip,
+ * and typeahead completions of their names. Kept current from committed {@link ItemChangedEvent}s: those of
+ * this server right after commit, those of other servers when {@link ItemChangeFeed} picks them up. Items
+ * written around ItemService are not seen until the next rebuild.
+ * <p>
+ * A query shorter than a trigram has no postings to narrow it down and is matched against every indexed item.
+ * It stays here rather than going to the database: the pg_trgm indexes cannot serve it either, so there it
+ * would be a scan of the whole table.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final int LOAD_CHUNK = 1000;
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Map<Long, Document> documents = new HashMap<>();
+    private Map<String, LongPostingList> postings = new HashMap<>();
+    private ItemNameTrie names = new ItemNameTrie(MAX_SUGGESTIONS);
+    private List<ItemChangedEvent> pending;
+    private volatile boolean ready;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.in-memory-index:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the index unless it is disabled.
+     */
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Loads all available items and swaps them in, replaying the changes that arrived during the load.
+     * Rebuilds run one at a time; a rebuild requested while another runs waits for it and then loads again,
+     * since it may have been requested for changes the running one has already missed.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Document> loaded;
+        try {
+            loaded = loadDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Map<Long, Document> newDocuments = loaded.stream()
+                .collect(Collectors.toMap(document -> document.id, document -> document));
+        Map<String, LongPostingList> newPostings = loaded.parallelStream()
+                .flatMap(document -> document.grams().stream().map(gram -> Map.entry(gram, document.id)))
+                .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())))
+                .entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> LongPostingList.ofUnsorted(
+                        entry.getValue().stream().mapToLong(Long::longValue).toArray())));
+        ItemNameTrie newNames = new ItemNameTrie(MAX_SUGGESTIONS);
+        loaded.forEach(document -> newNames.add(document.name));
+
+        lock.writeLock().lock();
+        try {
+            documents = new HashMap<>(newDocuments);
+            postings = new HashMap<>(newPostings);
+            names = newNames;
+            pending.forEach(this::apply);
+            pending = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Item search index rebuilt: {} items, {} trigrams", newDocuments.size(), newPostings.size());
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text) {
+        return search(text, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns one page of ranked matches. Only the best {@code offset + limit} matches are held while scanning.
+     */
+    public List<ItemDto> search(String text, int offset, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        Comparator<Document> order = Comparator.comparingInt((Document document) -> document.rank(query))
+                .thenComparingLong(document -> document.id);
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Document> top = new PriorityQueue<>(order.reversed());
+        lock.readLock().lock();
+        try {
+            forEachCandidate(query, document -> {
+                if (document.lowerName.contains(query) || document.lowerDescription.contains(query)) {
+                    top.add(document);
+                    if (top.size() > keep) {
+                        top.poll();
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Document> matches = new ArrayList<>(top);
+        matches.sort(order);
+        return matches.stream()
+                .skip(offset)
+                .map(Document::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns up to {@code limit} distinct names of available items with a word starting with the prefix.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return names.complete(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void forEachCandidate(String query, Consumer<Document> action) {
+        if (query.length() < GRAM) {
+            documents.values().forEach(action);
+            return;
+        }
+        List<LongPostingList> lists = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            LongPostingList list = postings.get(gram);
+            if (list == null) {
+                return;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList::size));
+        LongPostingList smallest = lists.get(0);
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            if (containsAll(lists, id)) {
+                action.accept(documents.get(id));
+            }
+        }
+    }
+
+    private boolean containsAll(List<LongPostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(ItemChangedEvent event) {
+        Document previous = documents.remove(event.getItemId());
+        if (previous != null) {
+            for (String gram : previous.grams()) {
+                LongPostingList list = postings.get(gram);
+                list.remove(previous.id);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+            names.remove(previous.name);
+        }
+        if (event.isAvailable()) {
+            Document document = new Document(event.getItemId(), event.getName(), event.getDescription(),
+                    event.getRequestId());
+            documents.put(document.id, document);
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new LongPostingList()).add(document.id);
+            }
+            names.add(document.name);
+        }
+    }
+
+    private List<Document> loadDocuments() {
+        List<Document> loaded = new ArrayList<>();
+        long afterId = 0;
+        Slice<Item> chunk;
+        do {
+            chunk = itemRepository.findAllByAvailableTrueAndIdGreaterThanOrderByIdAsc(afterId,
+                    PageRequest.of(0, LOAD_CHUNK));
+            for (Item item : chunk) {
+                loaded.add(new Document(item.getId(), item.getName(), item.getDescription(), item.getRequestId()));
+                afterId = item.getId();
+            }
+        } while (chunk.hasNext());
+        return loaded;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Document {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final Long requestId;
+        private final String lowerName;
+        private final String lowerDescription;
+
+        private Document(long id, String name, String description, Long requestId) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.requestId = requestId;
+            this.lowerName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+            this.lowerDescription = description == null ? "" : description.toLowerCase(Locale.ROOT);
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = trigrams(lowerName);
+            grams.addAll(trigrams(lowerDescription));
+            return grams;
+        }
+
+        private int rank(String query) {
+            if (lowerName.startsWith(query)) {
+                return 0;
+            }
+            return lowerName.contains(query) ? 1 : 2;
+        }
+
+        private ItemDto toItemDto() {
+            ItemDto itemDto = new ItemDto();
+            itemDto.setId(id);
+            itemDto.setName(name);
+            itemDto.setDescription(description);
+            itemDto.setAvailable(true);
+            itemDto.setRequestId(requestId);
+            return itemDto;
+        }
+    }
+}
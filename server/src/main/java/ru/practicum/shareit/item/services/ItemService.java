@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto createItem(ItemDto itemDto, long userId);
@@ -19,7 +20,11 @@ public interface ItemService {
 
     ItemDto getItemDtoById(long itemId, long userId);
 
-    List<ItemDto> searchItemByText(String text);
+    List<ItemDto> searchItemByText(String text, Integer from, Integer size);
+
+    void exportItemsByText(String text, Consumer<List<ItemDto>> consumer);
+
+    List<String> suggestItemNames(String prefix, Integer size);
 
     CommentDto createComment(CommentDto commentDto, long itemId, long userId);
 }
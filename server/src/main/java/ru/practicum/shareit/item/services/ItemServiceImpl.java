@@ -1,53 +1,65 @@
 package ru.practicum.shareit.item.services;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.BookingDate;
+import ru.practicum.shareit.booking.model.ItemBookingDate;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequest;
 import ru.practicum.shareit.exceptions.EntityNotFound;
 import ru.practicum.shareit.exceptions.InappropriateUser;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositories.CommentRepository;
 import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.user.services.UserService;
 import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.OffsetPageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ItemServiceImpl implements ItemService {
-    private final ModelMapper mapper;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final UserService userService;
+    private final ItemSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ItemServiceImpl(ModelMapper mapper, ItemRepository itemRepository, BookingRepository bookingRepository, CommentRepository commentRepository, UserService userService) {
-        this.mapper = mapper;
+    public ItemServiceImpl(ItemRepository itemRepository, BookingRepository bookingRepository, CommentRepository commentRepository,
+                           UserService userService, ItemSearchIndex searchIndex, ApplicationEventPublisher eventPublisher) {
         this.itemRepository = itemRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.userService = userService;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @Transactional(readOnly = true)
     public ItemDto getItemDtoById(long itemId, long userId) {
         Item item = getItemById(itemId);
-        item.getComments();
         ItemDto dto = convertItemToDto(item);
+        setComments(List.of(dto));
         if (item.getOwner() == userId) {
             dto.setLastBooking(bookingRepository.findLastBooking(itemId, getCurrentTime()));
             dto.setNextBooking(bookingRepository.findNextBooking(itemId, getCurrentTime()));
@@ -66,11 +78,11 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> getItems(long ownerId, Integer from, Integer size) {
         List<Item> items = getItemsPage(ownerId, from, size);
         List<ItemDto> itemsDto = items.stream()
-                .peek(Item::getComments)
                 .map(this::convertItemToDto)
                 .sorted(Comparator.comparing(ItemDto::getId))
                 .collect(Collectors.toList());
 
+        setComments(itemsDto);
         setBookingDate(itemsDto);
         return itemsDto;
     }
@@ -81,7 +93,11 @@ public class ItemServiceImpl implements ItemService {
         userService.isExistUser(userId);
         Item item = convertDtoToItem(itemDto);
         item.setOwner(userId);
-        return convertItemToDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(savedItem));
+        ItemDto dto = convertItemToDto(savedItem);
+        dto.setComments(new ArrayList<>());
+        return dto;
     }
 
     @Override
@@ -94,28 +110,85 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public ItemDto updateItem(ItemDto itemDto, long itemId, long userId) {
         Item item = getItemById(itemId);
         if (item.getOwner() != userId) {
             throw new InappropriateUser("Item has a different owner" + userId);
         }
         setUpdateItemFields(item, itemDto);
-        return convertItemToDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.of(savedItem));
+        ItemDto dto = convertItemToDto(savedItem);
+        setComments(List.of(dto));
+        return dto;
     }
 
     @Override
+    @Transactional
     public void deleteItem(long userId) {
         itemRepository.deleteById(userId);
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(userId));
     }
 
     @Override
-    public List<ItemDto> searchItemByText(String text) {
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchItemByText(String text, Integer from, Integer size) {
+        int pageSize = size == null ? MAX_SEARCH_SIZE : size;
+        int offset = from == null ? 0 : from;
+        if (offset < 0 || pageSize <= 0) {
+            throw new BadRequest("Request without pagination");
+        }
+        if (pageSize > MAX_SEARCH_SIZE) {
+            throw new BadRequest("Search page size must not exceed " + MAX_SEARCH_SIZE);
+        }
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.searchItemByText(text).stream()
+        List<ItemDto> itemsDto = searchIndex.isReady()
+                ? searchIndex.search(text, offset, pageSize)
+                : itemRepository.searchItemByText(text, OffsetPageRequest.ofOffset(offset, pageSize)).stream()
                 .map(this::convertItemToDto)
                 .collect(Collectors.toList());
+        setComments(itemsDto);
+        return itemsDto;
+    }
+
+    @Override
+    public void exportItemsByText(String text, Consumer<List<ItemDto>> consumer) {
+        if (text.isBlank()) {
+            return;
+        }
+        long afterId = 0;
+        List<Item> chunk;
+        do {
+            chunk = itemRepository.searchItemByTextAfterId(text, afterId, PageRequest.of(0, EXPORT_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<ItemDto> itemsDto = chunk.stream()
+                    .map(this::convertItemToDto)
+                    .collect(Collectors.toList());
+            setComments(itemsDto);
+            consumer.accept(itemsDto);
+            afterId = chunk.get(chunk.size() - 1).getId();
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> suggestItemNames(String prefix, Integer size) {
+        int limit = size == null ? ItemSearchIndex.MAX_SUGGESTIONS : size;
+        if (limit <= 0 || limit > ItemSearchIndex.MAX_SUGGESTIONS) {
+            throw new BadRequest("Suggestion count must be between 1 and " + ItemSearchIndex.MAX_SUGGESTIONS);
+        }
+        String query = prefix.stripLeading();
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return searchIndex.isReady()
+                ? searchIndex.suggest(query, limit)
+                : itemRepository.suggestItemNames(query, PageRequest.of(0, limit));
     }
 
     private void isValidComment(CommentDto commentDto, long itemId, long userId) {
@@ -148,15 +221,15 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private Item convertDtoToItem(ItemDto itemDto) {
-        return mapper.map(itemDto, Item.class);
+        return ItemMapper.toItem(itemDto);
     }
 
     private ItemDto convertItemToDto(Item item) {
-        return mapper.map(item, ItemDto.class);
+        return ItemMapper.toItemDto(item);
     }
 
     private CommentDto convertCommentToDto(Comment comment) {
-        return mapper.map(comment, CommentDto.class);
+        return ItemMapper.toCommentDto(comment);
     }
 
     private List<Item> getItemsPage(long ownerId, Integer from, Integer size) {
@@ -171,23 +244,40 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void setBookingDate(List<ItemDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
         List<Long> itemsId = items.stream()
                 .map(ItemDto::getId).collect(Collectors.toList());
+        LocalDateTime now = getCurrentTime();
 
-        List<BookingDate> allNextBooking = bookingRepository.findAllNextBooking(itemsId, getCurrentTime());
-        if (!allNextBooking.isEmpty()) {
-            for (int i = 0; i < allNextBooking.size(); i++) {
-                items.get(i).setNextBooking(allNextBooking.get(i));
-            }
+        Map<Long, ItemBookingDate> allNextBooking = mapByItemId(bookingRepository.findAllNextBooking(itemsId, now));
+        Map<Long, ItemBookingDate> allLastBooking = mapByItemId(bookingRepository.findAllLastBooking(itemsId, now));
+        for (ItemDto item : items) {
+            item.setNextBooking(allNextBooking.get(item.getId()));
+            item.setLastBooking(allLastBooking.get(item.getId()));
         }
-        List<BookingDate> allLastBooking = bookingRepository.findAllLastBooking(itemsId, getCurrentTime());
-        if (!allLastBooking.isEmpty()) {
-            for (int i = 0; i < allLastBooking.size(); i++) {
-                items.get(i).setLastBooking(allLastBooking.get(i));
-            }
+    }
+
+    private void setComments(List<ItemDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<Long> itemsId = items.stream()
+                .map(ItemDto::getId).collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItem_IdIn(itemsId).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(this::convertCommentToDto, Collectors.toList())));
+        for (ItemDto item : items) {
+            item.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
         }
     }
 
+    private Map<Long, ItemBookingDate> mapByItemId(List<ItemBookingDate> bookingDates) {
+        return bookingDates.stream()
+                .collect(Collectors.toMap(ItemBookingDate::getItemId, Function.identity()));
+    }
+
     private LocalDateTime getCurrentTime() {
         return LocalDateTime.now();
     }
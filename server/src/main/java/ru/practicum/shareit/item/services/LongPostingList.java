@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.services;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of item ids backed by a primitive array. Not thread-safe, guarded by ItemSearchIndex.
+ */
+final class LongPostingList {
+    private long[] ids;
+    private int size;
+
+    LongPostingList() {
+        this.ids = new long[4];
+    }
+
+    private LongPostingList(long[] ids) {
+        this.ids = ids;
+        this.size = ids.length;
+    }
+
+    static LongPostingList ofUnsorted(long[] ids) {
+        long[] sorted = Arrays.stream(ids).sorted().distinct().toArray();
+        return new LongPostingList(sorted);
+    }
+
+    void add(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
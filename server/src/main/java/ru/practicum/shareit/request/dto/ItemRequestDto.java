@@ -1,7 +1,7 @@
 package ru.practicum.shareit.request.dto;
 
 import lombok.Data;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
@@ -16,5 +16,5 @@ public class ItemRequestDto {
 
     private LocalDateTime created;
 
-    private List<Item> items;
+    private List<ItemDto> items;
 }
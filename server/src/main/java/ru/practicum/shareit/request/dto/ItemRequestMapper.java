@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.dto;
+
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.ArrayList;
+
+public final class ItemRequestMapper {
+    private ItemRequestMapper() {
+    }
+
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+        if (itemRequest == null) {
+            return null;
+        }
+        ItemRequestDto itemRequestDto = new ItemRequestDto();
+        itemRequestDto.setId(itemRequest.getId());
+        itemRequestDto.setDescription(itemRequest.getDescription());
+        itemRequestDto.setCreated(itemRequest.getCreated());
+        return itemRequestDto;
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto) {
+        if (itemRequestDto == null) {
+            return null;
+        }
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(itemRequestDto.getId());
+        itemRequest.setDescription(itemRequestDto.getDescription());
+        itemRequest.setCreated(itemRequestDto.getCreated());
+        itemRequest.setItems(new ArrayList<>());
+        return itemRequest;
+    }
+}
@@ -1,56 +1,73 @@
 package ru.practicum.shareit.request.services;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.BadRequest;
 import ru.practicum.shareit.exceptions.EntityNotFound;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repositories.RequestRepository;
 import ru.practicum.shareit.user.services.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ItemRequestServiceImpl implements ItemRequestService {
-    private final ModelMapper mapper;
     private final UserService userService;
     private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
 
     @Autowired
-    public ItemRequestServiceImpl(ModelMapper mapper, UserService userService, RequestRepository requestRepository) {
-        this.mapper = mapper;
+    public ItemRequestServiceImpl(UserService userService, RequestRepository requestRepository,
+                                  ItemRepository itemRepository) {
         this.userService = userService;
         this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
     }
 
     @Override
+    @Transactional
     public ItemRequestDto createRequest(ItemRequestDto requestDto, long userId) {
         userService.isExistUser(userId);
         ItemRequest request = convertDtoToRequest(requestDto);
         request.setOwner(userId);
         request.setCreated(LocalDateTime.now());
-        return convertRequestToDto(requestRepository.save(request));
+        ItemRequestDto dto = convertRequestToDto(requestRepository.save(request));
+        dto.setItems(new ArrayList<>());
+        return dto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto getRequestById(long requestId, long userId) {
         userService.isExistUser(userId);
-        return convertRequestToDto(requestRepository.findById(requestId).orElseThrow(() -> new EntityNotFound("")));
+        ItemRequestDto dto = convertRequestToDto(requestRepository.findById(requestId)
+                .orElseThrow(() -> new EntityNotFound("")));
+        setItems(List.of(dto));
+        return dto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getOwnerRequests(long ownerId) {
         userService.isExistUser(ownerId);
         return convertListToDto(requestRepository.findAllByOwner(ownerId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getUserRequests(long userId, Integer from, Integer size) {
         if (from == null && size == null) {
             return convertListToDto(requestRepository.findAllByOwner(userId));
@@ -61,17 +78,33 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return convertListToDto(requestRepository.findAllByOwnerNot(userId, PageRequest.of(from, size, Sort.by("created").ascending())));
     }
 
+    private void setItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<Long> requestsId = requests.stream()
+                .map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findAllByRequestIdIn(requestsId).stream()
+                .collect(Collectors.groupingBy(Item::getRequestId,
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        for (ItemRequestDto request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+    }
+
     private ItemRequestDto convertRequestToDto(ItemRequest itemRequest) {
-        return mapper.map(itemRequest, ItemRequestDto.class);
+        return ItemRequestMapper.toItemRequestDto(itemRequest);
     }
 
     private ItemRequest convertDtoToRequest(ItemRequestDto itemRequestDto) {
-        return mapper.map(itemRequestDto, ItemRequest.class);
+        return ItemRequestMapper.toItemRequest(itemRequestDto);
     }
 
     private List<ItemRequestDto> convertListToDto(List<ItemRequest> itemRequests) {
-        return itemRequests.stream()
+        List<ItemRequestDto> requests = itemRequests.stream()
                 .map(this::convertRequestToDto)
                 .collect(Collectors.toList());
+        setItems(requests);
+        return requests;
     }
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.dto;
+
+import ru.practicum.shareit.user.model.User;
+
+public final class UserMapper {
+    private UserMapper() {
+    }
+
+    public static UserDto toUserDto(User user) {
+        if (user == null) {
+            return null;
+        }
+        UserDto userDto = new UserDto();
+        userDto.setId(user.getId());
+        userDto.setName(user.getName());
+        userDto.setEmail(user.getEmail());
+        return userDto;
+    }
+
+    public static User toUser(UserDto userDto) {
+        if (userDto == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userDto.getId());
+        user.setName(userDto.getName());
+        user.setEmail(userDto.getEmail());
+        return user;
+    }
+}
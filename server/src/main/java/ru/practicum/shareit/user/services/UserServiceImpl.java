@@ -1,12 +1,12 @@
 package ru.practicum.shareit.user.services;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.AlreadyUsedEmail;
 import ru.practicum.shareit.exceptions.EntityNotFound;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserRepository;
 
@@ -17,12 +17,10 @@ import java.util.stream.Collectors;
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final ModelMapper mapper;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, ModelMapper mapper) {
+    public UserServiceImpl(UserRepository userRepository) {
         this.userRepository = userRepository;
-        this.mapper = mapper;
     }
 
 
@@ -52,6 +50,7 @@ public class UserServiceImpl implements UserService {
         return convertUserToDto(userRepository.save(user));
     }
 
+    @Transactional
     @Override
     public UserDto updateUser(UserDto userDto, long userId) {
         User user = getUserById(userId);
@@ -67,6 +66,7 @@ public class UserServiceImpl implements UserService {
         return convertUserToDto(userRepository.save(user));
     }
 
+    @Transactional
     @Override
     public void deleteUser(long userId) {
         userRepository.deleteById(userId);
@@ -80,11 +80,11 @@ public class UserServiceImpl implements UserService {
     }
 
     private User convertDtoToUser(UserDto userDto) {
-        return mapper.map(userDto, User.class);
+        return UserMapper.toUser(userDto);
     }
 
     private UserDto convertUserToDto(User user) {
-        return mapper.map(user, UserDto.class);
+        return UserMapper.toUserDto(user);
     }
 
     private void isUsedEmail(String email, long userId) {
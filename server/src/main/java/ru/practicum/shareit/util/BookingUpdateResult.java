@@ -0,0 +1,5 @@
+package ru.practicum.shareit.util;
+
+public enum BookingUpdateResult {
+    UPDATED, NOT_FOUND, STATUS_ALREADY_SET
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the transactions of a request by its {@link RequestDeadline}. The deadline becomes the transaction
+ * timeout, so queries get it as their JDBC timeout and a query started after it fails. Spring keeps that
+ * timeout in whole seconds; on Postgres each transaction also gets the remaining milliseconds as its
+ * {@code statement_timeout}, which cancels a statement still running when the caller gave up.
+ */
+@Slf4j
+@Component("transactionManager")
+public class DeadlineTransactionManager extends JpaTransactionManager {
+    private final boolean statementTimeout;
+
+    @Autowired
+    public DeadlineTransactionManager(EntityManagerFactory entityManagerFactory,
+                                      @Value("${shareit.deadline.statement-timeout:false}") boolean statementTimeout) {
+        super(entityManagerFactory);
+        this.statementTimeout = statementTimeout;
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Long remainingNanos = RequestDeadline.remainingNanos();
+        if (remainingNanos == null) {
+            return timeout;
+        }
+        if (remainingNanos <= 0) {
+            throw new TransactionTimedOutException("Request deadline exceeded before the transaction began");
+        }
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingNanos + 999_999_999) / 1_000_000_000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        Long remainingNanos = RequestDeadline.remainingNanos();
+        if (!statementTimeout || remainingNanos == null) {
+            return;
+        }
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        try {
+            holder.getEntityManager().unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL statement_timeout = " + remainingMillis);
+                }
+            });
+        } catch (PersistenceException e) {
+            log.warn("Could not set statement timeout of {} ms: {}", remainingMillis, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Objects;
+
+/**
+ * Page request that starts at any row rather than at a multiple of the page size, for the {@code from} and
+ * {@code size} parameters of the API. Moving to the next or previous page keeps the page-aligned behaviour
+ * of {@link PageRequest}.
+ */
+public final class OffsetPageRequest extends PageRequest {
+    private final long offset;
+
+    private OffsetPageRequest(long offset, int size) {
+        super((int) (offset / size), size, Sort.unsorted());
+        this.offset = offset;
+    }
+
+    public static OffsetPageRequest ofOffset(long offset, int size) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        return new OffsetPageRequest(offset, size);
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OffsetPageRequest)) {
+            return false;
+        }
+        OffsetPageRequest that = (OffsetPageRequest) o;
+        return offset == that.offset && getPageSize() == that.getPageSize();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, getPageSize());
+    }
+
+    @Override
+    public String toString() {
+        return "Offset request [offset: " + offset + ", size " + getPageSize() + "]";
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+/**
+ * Adds an ETag to item, user and search reads and answers a matching If-None-Match with 304, so the gateway
+ * can revalidate its cached copies cheaply. Other paths are skipped: the filter buffers the whole body, which
+ * would defeat the streaming export.
+ */
+@Component
+public class ReadEtagFilter extends ShallowEtagHeaderFilter {
+    private static final Pattern CACHEABLE_PATH = Pattern.compile("/items/\\d+|/users/\\d+|/items/search");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !CACHEABLE_PATH.matcher(request.getRequestURI()).matches();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the request handled by the current thread, as sent by the gateway in {@value #HEADER}: the
+ * milliseconds the caller is still willing to wait. Relative rather than absolute, so the gateway and server
+ * clocks need not agree.
+ */
+public final class RequestDeadline {
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void start(long timeoutMillis) {
+        DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return nanoseconds left until the deadline, negative once it passed, or null when there is none
+     */
+    public static Long remainingNanos() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? null : deadline - System.nanoTime();
+    }
+}
@@ -1,4 +1,4 @@
-DROP TABLE IF EXISTS bookings, comments, requests_items, requests, items, users CASCADE;
+DROP TABLE IF EXISTS item_changes, bookings, comments, requests_items, requests, items, users CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -46,6 +46,22 @@ CREATE TABLE IF NOT EXISTS bookings (
     status VARCHAR(20) NOT NULL,
     booker_id BIGINT REFERENCES users(id),
     item_id BIGINT REFERENCES items(id),
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_bookings PRIMARY KEY (id)
 );
 
+CREATE TABLE IF NOT EXISTS item_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    item_id BIGINT NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_item_changes PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_changes_changed_at ON item_changes (changed_at);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
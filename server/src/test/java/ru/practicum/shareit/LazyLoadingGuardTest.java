@@ -0,0 +1,160 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repositories.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.CommentRepository;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repositories.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+import ru.practicum.shareit.util.BookingStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs without a test transaction and with open-session-in-view disabled, so any lazy association touched
+ * while the response is serialized fails with a LazyInitializationException instead of silently loading.
+ */
+@SpringBootTest
+public class LazyLoadingGuardTest {
+    private static final String USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private MockMvc mockMvc;
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+    private Booking booking;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@example.com");
+        owner = userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("booker@example.com");
+        booker = userRepository.save(booker);
+
+        request = new ItemRequest();
+        request.setOwner(booker.getId());
+        request.setDescription("Need a drill");
+        request.setCreated(LocalDateTime.now());
+        request = requestRepository.save(request);
+
+        item = new Item();
+        item.setName("Drill");
+        item.setDescription("Cordless drill");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        item.setRequestId(request.getId());
+        item = itemRepository.save(item);
+
+        Comment comment = new Comment();
+        comment.setText("Great");
+        comment.setAuthorName(booker.getName());
+        comment.setCreated(LocalDateTime.now());
+        comment.setItem(item);
+        commentRepository.save(comment);
+
+        booking = new Booking();
+        booking.setStart(LocalDateTime.now().minusDays(2));
+        booking.setEnd(LocalDateTime.now().minusDays(1));
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking = bookingRepository.save(booking);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bookingRepository.deleteAll();
+        commentRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void openSessionInViewShouldBeDisabled() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    public void itemEndpointsShouldNotLoadLazily() throws Exception {
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header(USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].text").value("Great"));
+        mockMvc.perform(get("/items").header(USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].comments[0].text").value("Great"));
+        mockMvc.perform(get("/items/search").param("text", "drill").header(USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].comments[0].text").value("Great"));
+    }
+
+    @Test
+    public void bookingEndpointsShouldNotLoadLazily() throws Exception {
+        mockMvc.perform(get("/bookings/{bookingId}", booking.getId()).header(USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").value("Drill"));
+        mockMvc.perform(get("/bookings").header(USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value("Drill"));
+        mockMvc.perform(get("/bookings/owner").header(USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booker.id").value(booker.getId()));
+    }
+
+    @Test
+    public void requestEndpointsShouldNotLoadLazily() throws Exception {
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header(USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Drill"));
+        mockMvc.perform(get("/requests").header(USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].items[0].name").value("Drill"));
+        mockMvc.perform(get("/requests/all").param("from", "0").param("size", "10").header(USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].items[0].name").value("Drill"));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.SentBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-object mapping cost of the former ModelMapper (STRICT) configuration against the typed mappers.
+ * Run {@code main} from the test classpath; add {@code -prof gc} through the JMH CLI for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private ModelMapper modelMapper;
+    private User user;
+    private Item item;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+        user = new User();
+        user.setId(1L);
+        user.setName("John");
+        user.setEmail("john@example.com");
+
+        item = new Item();
+        item.setId(2L);
+        item.setName("Drill");
+        item.setDescription("Cordless drill");
+        item.setAvailable(true);
+        item.setOwner(3L);
+        item.setComments(new HashSet<>());
+
+        booking = new Booking();
+        booking.setId(4L);
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setBooker(user);
+        booking.setItem(item);
+    }
+
+    @Benchmark
+    public UserDto userModelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    @Benchmark
+    public UserDto userMapper() {
+        return UserMapper.toUserDto(user);
+    }
+
+    @Benchmark
+    public ItemDto itemModelMapper() {
+        return modelMapper.map(item, ItemDto.class);
+    }
+
+    @Benchmark
+    public ItemDto itemMapper() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public SentBookingDto bookingModelMapper() {
+        return modelMapper.map(booking, SentBookingDto.class);
+    }
+
+    @Benchmark
+    public SentBookingDto bookingMapper() {
+        return BookingMapper.toSentBookingDto(booking);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -14,10 +14,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.services.BookingService;
+import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.BookingUpdateResult;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -26,6 +32,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith({SpringExtension.class})
@@ -109,6 +116,29 @@ public class BookingControllerTest {
         assertEquals(bookings, responseDtoList);
     }
 
+    @Test
+    public void testGetAllOwnerBookings_withCursor_shouldReturnNextCursor() throws Exception {
+        long userId = 1L;
+        String state = "ALL";
+        Integer size = 1;
+        SentBookingDto booking = new SentBookingDto();
+        booking.setId(5L);
+        booking.setStart(LocalDateTime.of(2023, 4, 3, 13, 15, 30));
+        String cursor = new BookingCursor(LocalDateTime.of(2023, 4, 5, 10, 0), 7L).encode();
+
+        when(bookingService.getAllUserBookingsByCursor(userId, state, "OWNER", cursor, size)).thenReturn(List.of(booking));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(USER_ID, userId)
+                        .param("cursor", cursor)
+                        .param("size", size.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.after(booking).encode()));
+
+        verify(bookingService).getAllUserBookingsByCursor(userId, state, "OWNER", cursor, size);
+    }
+
     @Test
     public void createBooking() throws Exception {
         ReceivedBookingDto receivedBookingDtoTest = new ReceivedBookingDto();
@@ -152,4 +182,30 @@ public class BookingControllerTest {
 
         assertEquals(sentBookingDto, responseDto);
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    public void updateBookingStatuses() {
+        long userId = 2L;
+        List<BookingStatusUpdateDto> updates = List.of(new BookingStatusUpdateDto(1L, true),
+                new BookingStatusUpdateDto(2L, false));
+        List<BookingStatusUpdateResultDto> results = List.of(
+                new BookingStatusUpdateResultDto(1L, BookingUpdateResult.UPDATED, BookingStatus.APPROVED),
+                new BookingStatusUpdateResultDto(2L, BookingUpdateResult.NOT_FOUND, null));
+
+        when(bookingService.updateBookingStatuses(updates, userId)).thenReturn(results);
+
+        MvcResult mvcResult = mockMvc.perform(patch("/bookings/batch")
+                        .header(USER_ID, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updates)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<BookingStatusUpdateResultDto> response = objectMapper.readValue(mvcResult.getResponse().getContentAsString(),
+                new TypeReference<>() {
+                });
+
+        assertEquals(results, response);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.BookingStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingMapperTest {
+    @Test
+    public void testToSentBookingDto() {
+        User booker = new User();
+        booker.setId(2L);
+        Item item = new Item();
+        item.setId(3L);
+        item.setName("Drill");
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setStart(LocalDateTime.of(2023, 4, 1, 12, 0));
+        booking.setEnd(LocalDateTime.of(2023, 4, 2, 12, 0));
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setBooker(booker);
+        booking.setItem(item);
+
+        SentBookingDto dto = BookingMapper.toSentBookingDto(booking);
+
+        assertEquals(1L, dto.getId());
+        assertEquals(booking.getStart(), dto.getStart());
+        assertEquals(booking.getEnd(), dto.getEnd());
+        assertEquals(BookingStatus.APPROVED, dto.getStatus());
+        assertEquals(new BookerDto(2L), dto.getBooker());
+        assertEquals(new BookingItemDto(3L, "Drill"), dto.getItem());
+    }
+
+    @Test
+    public void testToBooking_shouldStartWaiting() {
+        ReceivedBookingDto dto = new ReceivedBookingDto();
+        dto.setItemId(3L);
+        dto.setStart(LocalDateTime.of(2023, 4, 1, 12, 0));
+        dto.setEnd(LocalDateTime.of(2023, 4, 2, 12, 0));
+
+        Booking booking = BookingMapper.toBooking(dto);
+
+        assertNull(booking.getId());
+        assertEquals(dto.getStart(), booking.getStart());
+        assertEquals(dto.getEnd(), booking.getEnd());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.util.BookingState;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.repositories.BookingQueryPlanTest$StatementRecorder")
+class BookingQueryPlanTest {
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_OWNER = 10;
+    private static final int BOOKINGS = 5000;
+    private static final String[] STATUSES = {"WAITING", "APPROVED", "REJECTED"};
+    private static final List<Pageable> PAGES = List.of(Pageable.unpaged(), PageRequest.of(0, 10));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private long userId;
+
+    private long ownerId;
+
+    @BeforeEach
+    public void generateDataset() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"user" + i, "user" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+
+        List<Object[]> items = new ArrayList<>();
+        for (Long owner : userIds) {
+            for (int i = 0; i < ITEMS_PER_OWNER; i++) {
+                items.add(new Object[]{"item" + i, "description" + i, true, owner});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, ?, ?)", items);
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(i - BOOKINGS / 2);
+            bookings.add(new Object[]{
+                    Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusHours(1)),
+                    STATUSES[i % STATUSES.length],
+                    userIds.get(i % userIds.size()),
+                    itemIds.get((i * 7) % itemIds.size())
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, status, booker_id, item_id) " +
+                "VALUES (?, ?, ?, ?, ?)", bookings);
+
+        userId = userIds.get(0);
+        ownerId = userIds.get(1);
+    }
+
+    @Test
+    public void userStateQueries_shouldUseBookerIndexes() {
+        for (BookingState state : BookingState.values()) {
+            for (Pageable pageable : PAGES) {
+                StatementRecorder.STATEMENTS.clear();
+                bookingRepository.findAllUserBookingsByState(userId, state.name(), LocalDateTime.now(),
+                        BookingCursor.FIRST, pageable);
+
+                assertThat(explainBookingsQuery())
+                        .as("%s bookings of a user, %s", state, pageable)
+                        .containsPattern("(?i)/\\* PUBLIC\\.IDX_BOOKINGS_BOOKER_\\w+: [^*]*BOOKER_ID = \\?1");
+            }
+        }
+    }
+
+    @Test
+    public void ownerStateQueries_shouldUseOwnerAndItemIndexes() {
+        for (BookingState state : BookingState.values()) {
+            for (Pageable pageable : PAGES) {
+                StatementRecorder.STATEMENTS.clear();
+                bookingRepository.findAllOwnerBookingsByState(ownerId, state.name(), LocalDateTime.now(),
+                        BookingCursor.FIRST, pageable);
+
+                assertThat(explainBookingsQuery())
+                        .as("%s bookings of an owner, %s", state, pageable)
+                        .containsPattern("(?i)/\\* PUBLIC\\.IDX_ITEMS_OWNER: OWNER_ID = \\?1")
+                        .containsPattern("(?i)/\\* PUBLIC\\.IDX_BOOKINGS_ITEM_\\w+: ITEM_ID = \\w+\\.ID");
+            }
+        }
+    }
+
+    /**
+     * Explains the last bookings statement Hibernate sent. H2 plans a statement before its parameters are
+     * bound, so binding nulls gives the plan the real values would get.
+     */
+    private String explainBookingsQuery() {
+        String sql = StatementRecorder.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().contains("from bookings"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("No bookings query was run"));
+        String plan = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+        assertThat(plan).doesNotContainIgnoringCase("BOOKINGS.tableScan");
+        return plan;
+    }
+
+    /**
+     * Records the SQL Hibernate generates, so the plans checked are those of the repository queries.
+     */
+    public static class StatementRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
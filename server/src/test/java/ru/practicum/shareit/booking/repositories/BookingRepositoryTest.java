@@ -7,8 +7,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingDate;
+import ru.practicum.shareit.booking.model.ItemBookingDate;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -16,7 +19,10 @@ import ru.practicum.shareit.user.repositories.UserRepository;
 import ru.practicum.shareit.util.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +38,42 @@ class BookingRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Test
+    public void testUpdateWaitingBookingStatus_shouldChangeOnlyWaitingBookingOfOwner() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        owner = userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        booker = userRepository.save(booker);
+
+        Item item = new Item();
+        item.setName("Item");
+        item.setDescription("Description");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        item = itemRepository.save(item);
+
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(LocalDateTime.now().plusHours(1));
+        booking.setEnd(LocalDateTime.now().plusHours(2));
+        booking = bookingRepository.save(booking);
+        Long bookingId = booking.getId();
+        Long version = booking.getVersion();
+
+        assertEquals(0, bookingRepository.updateWaitingBookingStatus(bookingId, BookingStatus.APPROVED, booker.getId()));
+        assertEquals(1, bookingRepository.updateWaitingBookingStatus(bookingId, BookingStatus.APPROVED, owner.getId()));
+        assertEquals(0, bookingRepository.updateWaitingBookingStatus(bookingId, BookingStatus.REJECTED, owner.getId()));
+
+        Booking updated = bookingRepository.findById(bookingId).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        assertEquals(version + 1, updated.getVersion());
+    }
+
     @Test
     public void testFindAllUserBookingsByState() {
         User user = new User();
@@ -61,25 +103,25 @@ class BookingRepositoryTest {
         b3.setStatus(BookingStatus.APPROVED);
         bookingRepository.save(b3);
 
-        List<Booking> bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "CURRENT", now);
-        assertTrue(bookings.contains(b2));
+        List<SentBookingDto> bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "CURRENT", now);
+        assertTrue(ids(bookings).contains(b2.getId()));
 
         bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "PAST", now);
-        assertTrue(bookings.contains(b1));
+        assertTrue(ids(bookings).contains(b1.getId()));
 
         bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "FUTURE", now);
-        assertTrue(bookings.contains(b3));
+        assertTrue(ids(bookings).contains(b3.getId()));
 
         bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "WAITING", now);
-        assertTrue(bookings.contains(b2));
+        assertTrue(ids(bookings).contains(b2.getId()));
 
         bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "REJECTED", now);
-        assertTrue(bookings.contains(b1));
+        assertTrue(ids(bookings).contains(b1.getId()));
 
         bookings = bookingRepository.findAllUserBookingsByState(user.getId(), "ALL", now);
-        assertTrue(bookings.contains(b1));
-        assertTrue(bookings.contains(b2));
-        assertTrue(bookings.contains(b3));
+        assertTrue(ids(bookings).contains(b1.getId()));
+        assertTrue(ids(bookings).contains(b2.getId()));
+        assertTrue(ids(bookings).contains(b3.getId()));
     }
 
     @Test
@@ -124,22 +166,53 @@ class BookingRepositoryTest {
         b3.setItem(item);
         bookingRepository.save(b3);
 
-        List<Booking> bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "PAST", now);
-        assertTrue(bookings.contains(b1));
+        List<SentBookingDto> bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "PAST", now);
+        assertTrue(ids(bookings).contains(b1.getId()));
 
         bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "FUTURE", now);
-        assertTrue(bookings.contains(b3));
+        assertTrue(ids(bookings).contains(b3.getId()));
 
         bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "WAITING", now);
-        assertTrue(bookings.contains(b2));
+        assertTrue(ids(bookings).contains(b2.getId()));
 
         bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "REJECTED", now);
-        assertTrue(bookings.contains(b1));
+        assertTrue(ids(bookings).contains(b1.getId()));
 
         bookings = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "ALL", now);
-        assertTrue(bookings.contains(b1));
-        assertTrue(bookings.contains(b2));
-        assertTrue(bookings.contains(b3));
+        assertTrue(ids(bookings).contains(b1.getId()));
+        assertTrue(ids(bookings).contains(b2.getId()));
+        assertTrue(ids(bookings).contains(b3.getId()));
+    }
+
+    @Test
+    public void testFindAllOwnerBookingsByState_shouldProjectBookerAndItem() {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("johndoe@example.com");
+        user = userRepository.save(user);
+
+        Item item = new Item();
+        item.setName("Drill");
+        item.setOwner(user.getId());
+        item.setAvailable(true);
+        itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = new Booking();
+        booking.setBooker(user);
+        booking.setStart(now.plusHours(1));
+        booking.setEnd(now.plusHours(2));
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setItem(item);
+        bookingRepository.save(booking);
+
+        List<SentBookingDto> bookings = bookingRepository.findAllOwnerBookingsByState(user.getId(), "ALL", now);
+
+        assertEquals(1, bookings.size());
+        assertEquals(booking.getId(), bookings.get(0).getId());
+        assertEquals(user.getId(), bookings.get(0).getBooker().getId());
+        assertEquals(item.getId(), bookings.get(0).getItem().getId());
+        assertEquals("Drill", bookings.get(0).getItem().getName());
     }
 
     @Test
@@ -176,7 +249,7 @@ class BookingRepositoryTest {
         int pageNumber = 0;
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("start").ascending());
 
-        Slice<Booking> result = bookingRepository.findAllUserBookingsByState(user.getId(), "ALL", now, pageable);
+        Slice<SentBookingDto> result = bookingRepository.findAllUserBookingsByState(user.getId(), "ALL", now, pageable);
 
         assertNotNull(result);
         assertTrue(result.hasContent());
@@ -232,7 +305,7 @@ class BookingRepositoryTest {
         int pageNumber = 0;
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by("start").ascending());
 
-        Slice<Booking> result = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "ALL", now, pageable);
+        Slice<SentBookingDto> result = bookingRepository.findAllOwnerBookingsByState(owner.getId(), "ALL", now, pageable);
 
         assertNotNull(result);
         assertTrue(result.hasContent());
@@ -241,6 +314,38 @@ class BookingRepositoryTest {
         assertEquals(pageable, result.getPageable());
     }
 
+    @Test
+    public void testFindAllUserBookingsByStateWithCursor_shouldMatchOffsetPages() {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("johndoe@example.com");
+        user = userRepository.save(user);
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            Booking booking = new Booking();
+            booking.setBooker(user);
+            booking.setStart(now.minusHours(i % 3));
+            booking.setEnd(now.plusHours(1));
+            booking.setStatus(BookingStatus.WAITING);
+            bookingRepository.save(booking);
+        }
+
+        List<SentBookingDto> expected = bookingRepository.findAllUserBookingsByState(user.getId(), "ALL", now);
+        List<SentBookingDto> actual = new ArrayList<>();
+        BookingCursor cursor = BookingCursor.FIRST;
+        Slice<SentBookingDto> page;
+        do {
+            page = bookingRepository.findAllUserBookingsByState(user.getId(), "ALL", now, cursor, PageRequest.of(0, 2));
+            actual.addAll(page.getContent());
+            SentBookingDto last = page.getContent().get(page.getNumberOfElements() - 1);
+            cursor = new BookingCursor(last.getStart(), last.getId());
+        } while (page.hasNext());
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, actual);
+    }
+
     @Test
     public void testFindLastBooking() {
         User user = new User();
@@ -320,7 +425,7 @@ class BookingRepositoryTest {
         b2.setItem(item);
         bookingRepository.save(b2);
 
-        List<BookingDate> actualBookingDate = bookingRepository.findAllLastBooking(List.of(item.getId(), item2.getId()), now);
+        List<ItemBookingDate> actualBookingDate = bookingRepository.findAllLastBooking(List.of(item.getId(), item2.getId()), now);
 
         assertEquals(actualBookingDate.size(), 1);
         assertEquals(actualBookingDate.get(0).getBookerId(), b1.getBooker().getId());
@@ -413,12 +518,94 @@ class BookingRepositoryTest {
         b3.setItem(item2);
         bookingRepository.save(b3);
 
-        List<BookingDate> actualBookingDate = bookingRepository.findAllNextBooking(List.of(item.getId(), item2.getId()), now);
+        List<ItemBookingDate> actualBookingDate = bookingRepository.findAllNextBooking(List.of(item.getId(), item2.getId()), now);
 
         assertEquals(actualBookingDate.size(), 1);
         assertEquals(actualBookingDate.get(0).getBookerId(), b2.getBooker().getId());
     }
 
+    @Test
+    public void testFindAllLastAndNextBooking_shouldResolveBookingPerItem() {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("johndoe@example.com");
+        user = userRepository.save(user);
+
+        User owner = new User();
+        owner.setName("owner");
+        owner.setEmail("owner@example.com");
+        owner = userRepository.save(owner);
+
+        Item item = new Item();
+        item.setOwner(owner.getId());
+        item.setAvailable(true);
+        itemRepository.save(item);
+
+        Item item2 = new Item();
+        item2.setOwner(owner.getId());
+        item2.setAvailable(true);
+        itemRepository.save(item2);
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking older = new Booking();
+        older.setBooker(user);
+        older.setStart(now.minusDays(3));
+        older.setEnd(now.minusDays(2));
+        older.setStatus(BookingStatus.APPROVED);
+        older.setItem(item);
+        bookingRepository.save(older);
+
+        Booking last = new Booking();
+        last.setBooker(user);
+        last.setStart(now.minusHours(2));
+        last.setEnd(now.minusHours(1));
+        last.setStatus(BookingStatus.APPROVED);
+        last.setItem(item);
+        bookingRepository.save(last);
+
+        Booking last2 = new Booking();
+        last2.setBooker(user);
+        last2.setStart(now.minusHours(5));
+        last2.setEnd(now.minusHours(4));
+        last2.setStatus(BookingStatus.APPROVED);
+        last2.setItem(item2);
+        bookingRepository.save(last2);
+
+        Booking next = new Booking();
+        next.setBooker(user);
+        next.setStart(now.plusHours(1));
+        next.setEnd(now.plusHours(2));
+        next.setStatus(BookingStatus.WAITING);
+        next.setItem(item);
+        bookingRepository.save(next);
+
+        Booking rejected = new Booking();
+        rejected.setBooker(user);
+        rejected.setStart(now.plusHours(1));
+        rejected.setEnd(now.plusHours(2));
+        rejected.setStatus(BookingStatus.REJECTED);
+        rejected.setItem(item2);
+        bookingRepository.save(rejected);
+
+        Booking next2 = new Booking();
+        next2.setBooker(user);
+        next2.setStart(now.plusDays(1));
+        next2.setEnd(now.plusDays(2));
+        next2.setStatus(BookingStatus.APPROVED);
+        next2.setItem(item2);
+        bookingRepository.save(next2);
+
+        Map<Long, Long> lastByItem = bookingRepository.findAllLastBooking(List.of(item.getId(), item2.getId()), now)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDate::getItemId, ItemBookingDate::getId));
+        Map<Long, Long> nextByItem = bookingRepository.findAllNextBooking(List.of(item.getId(), item2.getId()), now)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDate::getItemId, ItemBookingDate::getId));
+
+        assertEquals(Map.of(item.getId(), last.getId(), item2.getId(), last2.getId()), lastByItem);
+        assertEquals(Map.of(item.getId(), next.getId(), item2.getId(), next2.getId()), nextByItem);
+    }
+
     @Test
     public void testExistsBookingByBooker_IdAndItem_IdAndStatusAndStartBefore_shouldReturnTrue() {
         LocalDateTime startDate = LocalDateTime.now().minusDays(1);
@@ -474,4 +661,10 @@ class BookingRepositoryTest {
 
         assertFalse(exists);
     }
-}
\ No newline at end of file
+
+    private List<Long> ids(List<SentBookingDto> bookings) {
+        return bookings.stream()
+                .map(SentBookingDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
@@ -17,8 +19,10 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import ru.practicum.shareit.user.repositories.UserRepository;
 import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.BookingUpdateResult;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @SpringBootTest
@@ -142,6 +146,48 @@ public class BookingServiceImplIntegrationTest {
         assertEquals(bookingDto.getEnd(), result.getEnd());
     }
 
+    @Test
+    public void testCreateBooking_overlappingInterval_shouldThrowBookingConflict() {
+        User booker = new User();
+        booker.setName("John");
+        booker.setEmail("test@gmail.com");
+        userRepository.save(booker);
+
+        User owner = new User();
+        owner.setName("ownercxcvXV");
+        owner.setEmail("ownerxcvvc@gmail.com");
+        userRepository.save(owner);
+        Item item = new Item();
+        item.setName("Item 1");
+        item.setDescription("Description 1");
+        item.setOwner(owner.getId());
+        item.setAvailable(true);
+        itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        ReceivedBookingDto bookingDto = new ReceivedBookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(now.plusHours(1));
+        bookingDto.setEnd(now.plusHours(4));
+        SentBookingDto first = bookingService.createBooking(bookingDto, booker.getId());
+
+        ReceivedBookingDto overlapping = new ReceivedBookingDto();
+        overlapping.setItemId(item.getId());
+        overlapping.setStart(now.plusHours(3));
+        overlapping.setEnd(now.plusHours(5));
+        assertThrows(BookingConflict.class, () -> bookingService.createBooking(overlapping, booker.getId()));
+
+        ReceivedBookingDto adjacent = new ReceivedBookingDto();
+        adjacent.setItemId(item.getId());
+        adjacent.setStart(now.plusHours(4));
+        adjacent.setEnd(now.plusHours(5));
+        assertNotNull(bookingService.createBooking(adjacent, booker.getId()).getId());
+
+        bookingService.updateBookingStatus(first.getId(), "false", owner.getId());
+        overlapping.setEnd(now.plusHours(4));
+        assertNotNull(bookingService.createBooking(overlapping, booker.getId()).getId());
+    }
+
     @Test
     public void testCreateBooking_invalidBookingTimeRequest_shouldThrowItemIsUnavailable() {
         User booker = new User();
@@ -605,4 +651,48 @@ public class BookingServiceImplIntegrationTest {
 
         assertThrows(BadRequest.class, () -> bookingService.getAllUserBookings(user.getId(), status, "USER", 0, 0));
     }
+
+    @Test
+    public void updateBookingStatuses_shouldApplyUpdatesOfOwnerBookings() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner@example.com");
+        userRepository.save(owner);
+        User booker = new User();
+        booker.setName("Booker");
+        booker.setEmail("booker@example.com");
+        userRepository.save(booker);
+
+        Item item = new Item();
+        item.setName("Item 1");
+        item.setDescription("Description 1");
+        item.setAvailable(true);
+        item.setOwner(owner.getId());
+        itemRepository.save(item);
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking first = new Booking();
+        first.setItem(item);
+        first.setBooker(booker);
+        first.setStart(now.plusHours(1));
+        first.setEnd(now.plusHours(2));
+        bookingRepository.save(first);
+        Booking second = new Booking();
+        second.setItem(item);
+        second.setBooker(booker);
+        second.setStart(now.plusHours(3));
+        second.setEnd(now.plusHours(4));
+        bookingRepository.save(second);
+
+        List<BookingStatusUpdateResultDto> results = bookingService.updateBookingStatuses(List.of(
+                new BookingStatusUpdateDto(first.getId(), true),
+                new BookingStatusUpdateDto(second.getId(), false),
+                new BookingStatusUpdateDto(first.getId(), false)), owner.getId());
+
+        assertEquals(BookingUpdateResult.UPDATED, results.get(0).getResult());
+        assertEquals(BookingUpdateResult.UPDATED, results.get(1).getResult());
+        assertEquals(BookingUpdateResult.STATUS_ALREADY_SET, results.get(2).getResult());
+        assertEquals(BookingStatus.APPROVED, bookingService.getBooking(first.getId(), owner.getId()).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.getBooking(second.getId(), owner.getId()).getStatus());
+    }
 }
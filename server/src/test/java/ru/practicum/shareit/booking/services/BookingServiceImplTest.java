@@ -4,12 +4,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.dto.BookerDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateResultDto;
 import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
 import ru.practicum.shareit.booking.dto.SentBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingOwnerStatus;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.exceptions.*;
 import ru.practicum.shareit.item.services.ItemService;
@@ -17,11 +22,16 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.services.UserService;
 import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.BookingUpdateResult;
 
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,11 +41,11 @@ public class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
-    private ModelMapper modelMapper;
-    @Mock
     private ItemService itemService;
     @Mock
     private UserService userService;
+    @Mock
+    private ItemLockManager itemLockManager;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -52,10 +62,9 @@ public class BookingServiceImplTest {
         booking.setBooker(user);
         SentBookingDto bookingDto = new SentBookingDto();
         bookingDto.setId(BOOKING_ID);
-        bookingDto.setBooker(user);
+        bookingDto.setBooker(new BookerDto(USER_ID));
 
         when(bookingRepository.findById(BOOKING_ID)).thenReturn(Optional.of(booking));
-        when(modelMapper.map(booking, SentBookingDto.class)).thenReturn(bookingDto);
 
         SentBookingDto result = bookingService.getBooking(BOOKING_ID, USER_ID);
 
@@ -132,14 +141,14 @@ public class BookingServiceImplTest {
         String state = "ALL";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
@@ -161,14 +170,14 @@ public class BookingServiceImplTest {
         String state = "ALL";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
@@ -190,14 +199,14 @@ public class BookingServiceImplTest {
         String state = "ALL";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
@@ -205,7 +214,7 @@ public class BookingServiceImplTest {
 
 
 
-        Slice<Booking> requestPage = new PageImpl<>(bookings);
+        Slice<SentBookingDto> requestPage = new PageImpl<>(bookings);
         when(bookingRepository.findAllUserBookingsByState(eq(userId), eq(state), any(LocalDateTime.class), eq(PageRequest.of(from, size)))).thenReturn(requestPage);
 
         List<SentBookingDto> result = bookingService.getAllUserBookings(userId, state, "USER", from, size);
@@ -222,21 +231,21 @@ public class BookingServiceImplTest {
         String state = "ALL";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
         bookings.add(b2);
 
 
-        Slice<Booking> requestPage = new PageImpl<>(bookings);
+        Slice<SentBookingDto> requestPage = new PageImpl<>(bookings);
         when(bookingRepository.findAllOwnerBookingsByState(eq(userId), eq(state), any(LocalDateTime.class), eq(PageRequest.of(from, size)))).thenReturn(requestPage);
 
         List<SentBookingDto> result = bookingService.getAllUserBookings(userId, state, "OWNER", from, size);
@@ -253,21 +262,21 @@ public class BookingServiceImplTest {
         String state = "PAST";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
         bookings.add(b2);
 
 
-        Slice<Booking> requestPage = new PageImpl<>(List.of(b1));
+        Slice<SentBookingDto> requestPage = new PageImpl<>(List.of(b1));
         when(bookingRepository.findAllOwnerBookingsByState(eq(userId), eq(state), any(LocalDateTime.class), eq(PageRequest.of(from, size)))).thenReturn(requestPage);
 
         List<SentBookingDto> result = bookingService.getAllUserBookings(userId, state, "OWNER", from, size);
@@ -284,21 +293,21 @@ public class BookingServiceImplTest {
         String state = "FUTURE";
         LocalDateTime now = LocalDateTime.now();
 
-        List<Booking> bookings = new ArrayList<>();
-        Booking b1 = new Booking();
+        List<SentBookingDto> bookings = new ArrayList<>();
+        SentBookingDto b1 = new SentBookingDto();
         b1.setStart(now.minusHours(2));
         b1.setEnd(now.minusHours(1));
         b1.setStatus(BookingStatus.WAITING);
         bookings.add(b1);
 
-        Booking b2 = new Booking();
+        SentBookingDto b2 = new SentBookingDto();
         b2.setStart(now.plusHours(1));
         b2.setEnd(now.plusHours(3));
         b2.setStatus(BookingStatus.APPROVED);
         bookings.add(b2);
 
 
-        Slice<Booking> requestPage = new PageImpl<>(List.of(b2));
+        Slice<SentBookingDto> requestPage = new PageImpl<>(List.of(b2));
         when(bookingRepository.findAllOwnerBookingsByState(eq(userId), eq(state), any(LocalDateTime.class), eq(PageRequest.of(from, size)))).thenReturn(requestPage);
 
         List<SentBookingDto> result = bookingService.getAllUserBookings(userId, state, "OWNER", from, size);
@@ -307,6 +316,32 @@ public class BookingServiceImplTest {
         verify(bookingRepository, times(1)).findAllOwnerBookingsByState(eq(userId), eq(state), any(LocalDateTime.class), eq(PageRequest.of(from, size)));
     }
 
+    @Test
+    public void testGetAllUserBookingsByCursor_success() {
+        long userId = 1L;
+        String state = "ALL";
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 4, 5, 10, 0), 7L);
+        SentBookingDto booking = new SentBookingDto();
+        booking.setId(6L);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(bookingRepository.findAllUserBookingsByState(eq(userId), eq(state), any(LocalDateTime.class),
+                any(BookingCursor.class), eq(PageRequest.of(0, 2)))).thenReturn(new SliceImpl<>(List.of(booking)));
+
+        List<SentBookingDto> result = bookingService.getAllUserBookingsByCursor(userId, state, "USER", cursor.encode(), 2);
+
+        assertEquals(1, result.size());
+        verify(bookingRepository, times(1)).findAllUserBookingsByState(eq(userId), eq(state), any(LocalDateTime.class),
+                argThat(after -> after.getId().equals(7L) && after.getStart().equals(cursor.getStart())), eq(PageRequest.of(0, 2)));
+    }
+
+    @Test
+    public void testGetAllUserBookingsByCursor_shouldThrowBadRequest() {
+        assertThrows(BadRequest.class, () -> bookingService.getAllUserBookingsByCursor(1L, "ALL", "USER", "not a cursor", 2));
+        assertThrows(BadRequest.class, () -> bookingService.getAllUserBookingsByCursor(1L, "ALL", "USER", null, 0));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     public void testCreateBooking_shouldThrowBadRequest() {
         ReceivedBookingDto bookingDto = new ReceivedBookingDto();
@@ -421,7 +456,6 @@ public class BookingServiceImplTest {
 
         when(itemService.getItemById(bookingDto.getItemId())).thenReturn(item);
         when(userService.getUserById(userId)).thenReturn(user);
-        when(modelMapper.map(bookingDto, Booking.class)).thenReturn(booking);
 
 
         bookingService.createBooking(bookingDto, userId);
@@ -430,32 +464,77 @@ public class BookingServiceImplTest {
     }
 
     @Test
-    public void testUpdateBookingStatus_withValidRequest_returnsSentBookingDtoApproved() {
-        long bookingId = 1L;
-        String approved = "true";
+    public void testCreateBooking_overlappingBooking_shouldThrowBookingConflict() {
+        ReceivedBookingDto bookingDto = new ReceivedBookingDto();
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(1L);
+        item.setAvailable(true);
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusHours(2));
+        bookingDto.setEnd(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusHours(5));
         long userId = 2L;
+        Booking booking = new Booking();
+        booking.setEnd(bookingDto.getEnd());
+        booking.setStart(bookingDto.getStart());
+
+        when(itemService.getItemById(bookingDto.getItemId())).thenReturn(item);
+        when(bookingRepository.existsOverlappingBooking(item.getId(), bookingDto.getStart(), bookingDto.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(BookingConflict.class, () -> bookingService.createBooking(bookingDto, userId));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    public void testCreateBooking_exclusionViolationOnSave_shouldThrowBookingConflict() {
+        ReceivedBookingDto bookingDto = createBookableRequest();
 
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThrows(BookingConflict.class, () -> bookingService.createBooking(bookingDto, 2L));
+    }
+
+    @Test
+    public void testCreateBooking_otherViolationOnSave_shouldRethrow() {
+        ReceivedBookingDto bookingDto = createBookableRequest();
+
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new DataIntegrityViolationException("fk",
+                new SQLException("insert or update violates foreign key constraint", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.createBooking(bookingDto, 2L));
+    }
+
+    private ReceivedBookingDto createBookableRequest() {
         Item item = new Item();
         item.setId(1L);
-        item.setOwner(userId);
+        item.setOwner(1L);
+        item.setAvailable(true);
+        ReceivedBookingDto bookingDto = new ReceivedBookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusHours(2));
+        bookingDto.setEnd(LocalDateTime.now().plusHours(5));
+        when(itemService.getItemById(item.getId())).thenReturn(item);
+        return bookingDto;
+    }
 
-        Booking booking = new Booking();
-        booking.setId(bookingId);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
+    @Test
+    public void testUpdateBookingStatus_withValidRequest_returnsSentBookingDtoApproved() {
+        long bookingId = 1L;
+        String approved = "true";
+        long userId = 2L;
 
-        SentBookingDto updatedBooking = new SentBookingDto();
-        updatedBooking.setId(bookingId);
-        updatedBooking.setItem(item);
-        updatedBooking.setStatus(BookingStatus.APPROVED);
+        SentBookingDto booking = new SentBookingDto(bookingId, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), BookingStatus.APPROVED, 3L, 1L, "Drill");
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
-        when(modelMapper.map(booking, SentBookingDto.class)).thenReturn(updatedBooking);
+        when(bookingRepository.updateWaitingBookingStatus(bookingId, BookingStatus.APPROVED, userId)).thenReturn(1);
+        when(bookingRepository.findSentBookingDtoById(bookingId)).thenReturn(Optional.of(booking));
 
         SentBookingDto sentBookingDto = bookingService.updateBookingStatus(bookingId, approved, userId);
 
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).findById(anyLong());
         assertEquals(bookingId, sentBookingDto.getId());
         assertEquals("APPROVED", sentBookingDto.getStatus().name());
     }
@@ -466,27 +545,16 @@ public class BookingServiceImplTest {
         String approved = "false";
         long userId = 2L;
 
-        Item item = new Item();
-        item.setId(1L);
-        item.setOwner(userId);
-
-        Booking booking = new Booking();
-        booking.setId(bookingId);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
-
-        SentBookingDto updatedBooking = new SentBookingDto();
-        updatedBooking.setId(bookingId);
-        updatedBooking.setItem(item);
-        updatedBooking.setStatus(BookingStatus.REJECTED);
+        SentBookingDto booking = new SentBookingDto(bookingId, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), BookingStatus.REJECTED, 3L, 1L, "Drill");
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
-        when(modelMapper.map(booking, SentBookingDto.class)).thenReturn(updatedBooking);
+        when(bookingRepository.updateWaitingBookingStatus(bookingId, BookingStatus.REJECTED, userId)).thenReturn(1);
+        when(bookingRepository.findSentBookingDtoById(bookingId)).thenReturn(Optional.of(booking));
 
         SentBookingDto sentBookingDto = bookingService.updateBookingStatus(bookingId, approved, userId);
 
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).findById(anyLong());
         assertEquals(bookingId, sentBookingDto.getId());
         assertEquals("REJECTED", sentBookingDto.getStatus().name());
     }
@@ -550,4 +618,74 @@ public class BookingServiceImplTest {
 
         assertEquals(exception.getMessage(), "Booking status already set: " + bookingId);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUpdateBookingStatuses_shouldReturnResultPerBooking() {
+        long userId = 2L;
+        List<BookingStatusUpdateDto> updates = List.of(new BookingStatusUpdateDto(1L, true),
+                new BookingStatusUpdateDto(2L, false), new BookingStatusUpdateDto(3L, true),
+                new BookingStatusUpdateDto(4L, true));
+
+        when(bookingRepository.updateWaitingBookingStatuses(updates, userId)).thenReturn(new int[]{1, 0, 0, 0});
+        when(bookingRepository.findOwnerStatusesByIdIn(Set.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                ownerStatus(1L, BookingStatus.APPROVED, userId),
+                ownerStatus(2L, BookingStatus.APPROVED, userId),
+                ownerStatus(3L, BookingStatus.WAITING, 5L)));
+
+        List<BookingStatusUpdateResultDto> results = bookingService.updateBookingStatuses(updates, userId);
+
+        assertEquals(List.of(
+                new BookingStatusUpdateResultDto(1L, BookingUpdateResult.UPDATED, BookingStatus.APPROVED),
+                new BookingStatusUpdateResultDto(2L, BookingUpdateResult.STATUS_ALREADY_SET, BookingStatus.APPROVED),
+                new BookingStatusUpdateResultDto(3L, BookingUpdateResult.NOT_FOUND, null),
+                new BookingStatusUpdateResultDto(4L, BookingUpdateResult.NOT_FOUND, null)), results);
+    }
+
+    @Test
+    public void testUpdateBookingStatuses_withoutRowCounts_shouldTellUpdatesByTheResultingStatus() {
+        long userId = 2L;
+        List<BookingStatusUpdateDto> updates = List.of(new BookingStatusUpdateDto(1L, true),
+                new BookingStatusUpdateDto(2L, false));
+
+        when(bookingRepository.updateWaitingBookingStatuses(updates, userId))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(bookingRepository.findOwnerStatusesByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                ownerStatus(1L, BookingStatus.APPROVED, userId),
+                ownerStatus(2L, BookingStatus.APPROVED, userId)));
+
+        List<BookingStatusUpdateResultDto> results = bookingService.updateBookingStatuses(updates, userId);
+
+        assertEquals(List.of(
+                new BookingStatusUpdateResultDto(1L, BookingUpdateResult.UPDATED, BookingStatus.APPROVED),
+                new BookingStatusUpdateResultDto(2L, BookingUpdateResult.STATUS_ALREADY_SET, BookingStatus.APPROVED)),
+                results);
+    }
+
+    @Test
+    public void testUpdateBookingStatuses_invalidRequest_shouldThrowBadRequest() {
+        List<BookingStatusUpdateDto> withoutApproved = List.of(new BookingStatusUpdateDto(1L, null));
+
+        assertThrows(BadRequest.class, () -> bookingService.updateBookingStatuses(List.of(), USER_ID));
+        assertThrows(BadRequest.class, () -> bookingService.updateBookingStatuses(withoutApproved, USER_ID));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingOwnerStatus ownerStatus(Long id, BookingStatus status, Long ownerId) {
+        return new BookingOwnerStatus() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+        };
+    }
+}
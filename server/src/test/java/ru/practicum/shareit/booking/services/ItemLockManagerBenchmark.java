@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.services;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.ReceivedBookingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repositories.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of {@link BookingService#createBooking} under contention: many threads book random items through
+ * the real admission path (item lock, overlap check, insert) against the in-memory H2 database. 64 stripes
+ * are compared with a single stripe, which is one global admission lock. Every booking gets its own time slot,
+ * so none is rejected as overlapping and the locks, not conflicts, decide the throughput.
+ * Run with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class ItemLockManagerBenchmark {
+    @Param({"1", "64"})
+    private int lockStripes;
+
+    @Param({"1", "16", "1024"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private long[] itemIds;
+    private long bookerId;
+    private final AtomicLong slots = new AtomicLong();
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusDays(1);
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("shareit.booking.lock-stripes=" + lockStripes,
+                        "spring.datasource.hikari.maximum-pool-size=32",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        User owner = userRepository.save(user("owner"));
+        bookerId = userRepository.save(user("booker")).getId();
+        itemIds = new long[items];
+        for (int i = 0; i < items; i++) {
+            Item item = new Item();
+            item.setName("Item " + i);
+            item.setDescription("Description " + i);
+            item.setOwner(owner.getId());
+            item.setAvailable(true);
+            itemIds[i] = itemRepository.save(item).getId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createBooking() {
+        LocalDateTime start = firstSlot.plusMinutes(2 * slots.getAndIncrement());
+        ReceivedBookingDto bookingDto = new ReceivedBookingDto();
+        bookingDto.setItemId(itemIds[ThreadLocalRandom.current().nextInt(items)]);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(start.plusMinutes(1));
+        return bookingService.createBooking(bookingDto, bookerId);
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@benchmark.ru");
+        return user;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ItemLockManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
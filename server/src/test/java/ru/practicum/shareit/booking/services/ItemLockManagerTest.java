@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ItemLockManagerTest {
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testLockItem_withoutTransaction_shouldThrowIllegalState() {
+        ItemLockManager lockManager = new ItemLockManager(entityManager, 4, false);
+
+        assertThrows(IllegalStateException.class, () -> lockManager.lockItem(1L));
+    }
+
+    @Test
+    public void testLockItem_shouldHoldStripeUntilTransactionCompletes() throws Exception {
+        ItemLockManager lockManager = new ItemLockManager(entityManager, 4, false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        lockManager.lockItem(1L);
+
+        assertFalse(tryLockFromOtherThread(lockManager.stripe(1L)));
+        assertTrue(tryLockFromOtherThread(lockManager.stripe(2L)));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertTrue(tryLockFromOtherThread(lockManager.stripe(1L)));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    public void testLockItem_withAdvisoryLocks_shouldAcquireDatabaseLock() {
+        ItemLockManager lockManager = new ItemLockManager(entityManager, 4, true);
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter("itemId", 7L)).thenReturn(query);
+        TransactionSynchronizationManager.initSynchronization();
+
+        lockManager.lockItem(7L);
+
+        verify(query).getSingleResult();
+    }
+
+    private boolean tryLockFromOtherThread(Lock lock) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            boolean locked = lock.tryLock();
+            if (locked) {
+                lock.unlock();
+            }
+            return locked;
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
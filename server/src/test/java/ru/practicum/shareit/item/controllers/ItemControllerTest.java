@@ -7,21 +7,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.item.services.ItemService;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith({SpringExtension.class})
@@ -56,6 +63,26 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name", is("Test item")));
     }
 
+    @SneakyThrows
+    @Test
+    public void testGetItemById_withMatchingEtag_shouldReturnNotModified() {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(ITEM_ID);
+        itemDto.setName("Test item");
+
+        when(itemService.getItemDtoById(eq(ITEM_ID), eq(USER_ID))).thenReturn(itemDto);
+
+        String etag = mockMvc.perform(get("/items/" + ITEM_ID).header(HEADER_USER_ID, USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/" + ITEM_ID).header(HEADER_USER_ID, USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @SneakyThrows
     @Test
     public void testGetItems() {
@@ -79,6 +106,34 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[1].name", is("Test item 2")));
     }
 
+    @SneakyThrows
+    @Test
+    public void testExportItemsByText_shouldStreamNdjson() {
+        ItemDto item1 = new ItemDto();
+        item1.setId(ITEM_ID);
+        item1.setName("Test item 1");
+        ItemDto item2 = new ItemDto();
+        item2.setId(ITEM_ID + 1);
+        item2.setName("Test item 2");
+
+        doAnswer(invocation -> {
+            Consumer<List<ItemDto>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(item1));
+            consumer.accept(List.of(item2));
+            return null;
+        }).when(itemService).exportItemsByText(eq("test"), any());
+
+        MvcResult result = mockMvc.perform(get("/items/search/export").param("text", "test"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(item1) + "\n" +
+                        objectMapper.writeValueAsString(item2) + "\n"));
+    }
+
     @SneakyThrows
     @Test
     public void testSearchItemsByText() {
@@ -92,7 +147,7 @@ public class ItemControllerTest {
 
         List<ItemDto> items = Arrays.asList(item1, item2);
 
-        when(itemService.searchItemByText(anyString())).thenReturn(items);
+        when(itemService.searchItemByText(anyString(), any(), any())).thenReturn(items);
 
         mockMvc.perform(get("/items/search").param("text", "test"))
                 .andExpect(status().isOk())
@@ -102,6 +157,17 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[1].name", is("Test item 2")));
     }
 
+    @SneakyThrows
+    @Test
+    public void testSuggestItemNames() {
+        when(itemService.suggestItemNames("dri", 5)).thenReturn(List.of("Drill", "Cordless drill"));
+
+        mockMvc.perform(get("/items/suggest").param("prefix", "dri").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Drill")))
+                .andExpect(jsonPath("$[1]", is("Cordless drill")));
+    }
+
     @SneakyThrows
     @Test
     public void testCreateItem_Success() {
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemMapperTest {
+    @Test
+    public void testToItemDtoAndBack() {
+        Comment comment = new Comment();
+        comment.setId(3L);
+        comment.setText("Great");
+        comment.setAuthorName("John");
+        comment.setCreated(LocalDateTime.of(2023, 4, 1, 12, 0));
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Drill");
+        item.setDescription("Cordless drill");
+        item.setAvailable(true);
+        item.setOwner(2L);
+        item.setRequestId(4L);
+        item.setComments(Set.of(comment));
+
+        ItemDto dto = ItemMapper.toItemDto(item);
+
+        assertEquals(1L, dto.getId());
+        assertEquals("Drill", dto.getName());
+        assertEquals("Cordless drill", dto.getDescription());
+        assertTrue(dto.getAvailable());
+        assertEquals(4L, dto.getRequestId());
+        assertNull(dto.getComments());
+        assertNull(dto.getLastBooking());
+        assertNull(dto.getNextBooking());
+
+        Item mapped = ItemMapper.toItem(dto);
+        assertEquals(item.getName(), mapped.getName());
+        assertEquals(item.getRequestId(), mapped.getRequestId());
+        assertNull(mapped.getOwner());
+    }
+
+    @Test
+    public void testToCommentDto() {
+        Comment comment = new Comment();
+        comment.setId(3L);
+        comment.setText("Great");
+        comment.setAuthorName("John");
+        comment.setCreated(LocalDateTime.of(2023, 4, 1, 12, 0));
+
+        CommentDto dto = ItemMapper.toCommentDto(comment);
+
+        assertEquals(3L, dto.getId());
+        assertEquals("Great", dto.getText());
+        assertEquals("John", dto.getAuthorName());
+        assertEquals(comment.getCreated(), dto.getCreated());
+    }
+}
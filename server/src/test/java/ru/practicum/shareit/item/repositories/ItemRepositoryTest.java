@@ -51,6 +51,50 @@ class ItemRepositoryTest {
         assertTrue(foundItems.contains(item3));
     }
 
+    @Test
+    public void testSearchItemByText_shouldRankNameMatchesFirst() {
+        Item byDescription = new Item();
+        byDescription.setName("Screwdriver");
+        byDescription.setDescription("Works like a drill");
+        byDescription.setAvailable(true);
+        itemRepository.save(byDescription);
+
+        Item byName = new Item();
+        byName.setName("Cordless drill");
+        byName.setDescription("Battery powered");
+        byName.setAvailable(true);
+        itemRepository.save(byName);
+
+        Item byPrefix = new Item();
+        byPrefix.setName("Drill press");
+        byPrefix.setDescription("Bench tool");
+        byPrefix.setAvailable(true);
+        itemRepository.save(byPrefix);
+
+        List<Item> foundItems = itemRepository.searchItemByText("drill");
+
+        assertEquals(List.of(byPrefix, byName, byDescription), foundItems);
+    }
+
+    @Test
+    public void testSearchItemByText_shouldTreatWildcardsLiterally() {
+        Item item1 = new Item();
+        item1.setName("Discount 50% off");
+        item1.setDescription("Sale");
+        item1.setAvailable(true);
+        itemRepository.save(item1);
+
+        Item item2 = new Item();
+        item2.setName("Discount 500 off");
+        item2.setDescription("Sale");
+        item2.setAvailable(true);
+        itemRepository.save(item2);
+
+        assertEquals(List.of(item1), itemRepository.searchItemByText("50%"));
+        assertEquals(List.of(item1), itemRepository.searchItemByText("0% "));
+        assertTrue(itemRepository.searchItemByText("t_5").isEmpty());
+    }
+
     @Test
     public void testSearchItemByText_shouldReturnNegativeResult() {
         Item item1 = new Item();
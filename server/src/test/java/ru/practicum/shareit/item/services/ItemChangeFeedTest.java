@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes items the way another server would: to the tables only, without publishing events here.
+ */
+@DataJpaTest
+class ItemChangeFeedTest {
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemSearchIndex index;
+    private ItemChangeFeed feed;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ItemSearchIndex(itemRepository, true);
+        feed = new ItemChangeFeed(jdbcTemplate, itemRepository, index, true, Duration.ofSeconds(1),
+                Duration.ofMinutes(1), Duration.ofHours(1));
+        feed.start();
+        index.rebuild();
+    }
+
+    @Test
+    public void poll_shouldApplyChangesMadeElsewhere() {
+        Item item = saveItem("Cordless drill");
+        recordChange(item.getId());
+
+        feed.poll();
+
+        assertEquals(List.of(item.getId()), searchIds("drill"));
+        assertEquals(List.of("Cordless drill"), index.suggest("cord", 10));
+
+        item.setName("Hammer");
+        itemRepository.save(item);
+        recordChange(item.getId());
+        feed.poll();
+
+        assertEquals(List.of(), index.suggest("cord", 10));
+        assertEquals(List.of("Hammer"), index.suggest("ham", 10));
+
+        itemRepository.delete(item);
+        recordChange(item.getId());
+        feed.poll();
+
+        assertEquals(List.of(), searchIds("hammer"));
+        assertEquals(List.of(), index.suggest("ham", 10));
+    }
+
+    @Test
+    public void poll_shouldApplyChangesCommittedOutOfOrder() {
+        long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM item_changes", Long.class);
+        Item later = saveItem("Ladder");
+        Item earlier = saveItem("Kayak");
+        jdbcTemplate.update("INSERT INTO item_changes (id, item_id) VALUES (?, ?)", lastId + 2, later.getId());
+
+        feed.poll();
+        assertEquals(List.of(later.getId()), searchIds("ladder"));
+        assertEquals(List.of(), searchIds("kayak"));
+
+        jdbcTemplate.update("INSERT INTO item_changes (id, item_id) VALUES (?, ?)", lastId + 1, earlier.getId());
+        feed.poll();
+
+        assertEquals(List.of(earlier.getId()), searchIds("kayak"));
+    }
+
+    private Item saveItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription("Description");
+        item.setAvailable(true);
+        item.setOwner(1L);
+        return itemRepository.saveAndFlush(item);
+    }
+
+    private void recordChange(long itemId) {
+        jdbcTemplate.update("INSERT INTO item_changes (item_id) VALUES (?)", itemId);
+    }
+
+    private List<Long> searchIds(String text) {
+        return index.search(text).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,225 @@
+package ru.practicum.shareit.item.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class ItemSearchIndexTest {
+    private static final String[] WORDS = {"drill", "cordless", "hammer", "saw", "ladder", "Bosch", "Makita",
+            "battery", "tent", "kayak", "щётка", "дрель", "для", "обуви", "50%", "a_b", "pro", "mini"};
+    private static final int ITEMS = 300;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final Random random = new Random(42);
+    private List<Item> items;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item();
+            item.setName(phrase(1 + random.nextInt(3)));
+            item.setDescription(phrase(2 + random.nextInt(4)));
+            item.setAvailable(random.nextInt(5) != 0);
+            item.setOwner(1L);
+            items.add(itemRepository.save(item));
+        }
+        entityManager.flush();
+        index = new ItemSearchIndex(itemRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    public void search_shouldMatchSqlSearch() {
+        assertTrue(index.isReady());
+        assertConsistentWithSql();
+    }
+
+    @Test
+    public void search_shouldStayConsistentAfterIncrementalUpdates() {
+        for (int i = 0; i < 60; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            if (i % 10 == 0 && itemRepository.existsById(item.getId())) {
+                itemRepository.delete(item);
+                index.onItemChanged(ItemChangedEvent.deleted(item.getId()));
+                continue;
+            }
+            if (!itemRepository.existsById(item.getId())) {
+                continue;
+            }
+            item.setName(phrase(1 + random.nextInt(3)));
+            item.setAvailable(random.nextBoolean());
+            index.onItemChanged(ItemChangedEvent.of(itemRepository.save(item)));
+        }
+        Item created = new Item();
+        created.setName("Brand new drill");
+        created.setDescription("Unboxed");
+        created.setAvailable(true);
+        created.setOwner(1L);
+        index.onItemChanged(ItemChangedEvent.of(itemRepository.save(created)));
+        entityManager.flush();
+
+        assertConsistentWithSql();
+    }
+
+    @Test
+    public void suggest_shouldCompleteWordStartsByPopularity() {
+        Item item = items.get(0);
+        item.setName("Zebra zoom lens");
+        item.setAvailable(true);
+        index.onItemChanged(ItemChangedEvent.of(item));
+        for (int i = 1; i <= 2; i++) {
+            Item other = items.get(i);
+            other.setName("Zoom camera");
+            other.setAvailable(true);
+            index.onItemChanged(ItemChangedEvent.of(other));
+        }
+
+        assertEquals(List.of("Zoom camera", "Zebra zoom lens"), index.suggest("zo", 10));
+        assertEquals(List.of("Zebra zoom lens"), index.suggest("ZEB", 10));
+        assertEquals(List.of("Zoom camera"), index.suggest("zo", 1));
+
+        items.get(1).setAvailable(false);
+        index.onItemChanged(ItemChangedEvent.of(items.get(1)));
+        index.onItemChanged(ItemChangedEvent.deleted(items.get(2).getId()));
+        assertEquals(List.of("Zebra zoom lens"), index.suggest("zo", 10));
+    }
+
+    @Test
+    public void search_shouldIgnoreUnavailableItems() {
+        Item item = items.get(0);
+        item.setName("Unique zeppelin");
+        item.setAvailable(true);
+        index.onItemChanged(ItemChangedEvent.of(item));
+        assertEquals(List.of(item.getId()), ids(index.search("zeppelin")));
+
+        item.setAvailable(false);
+        index.onItemChanged(ItemChangedEvent.of(item));
+        assertTrue(index.search("zeppelin").isEmpty());
+    }
+
+    @Test
+    public void rebuild_whenRequestedDuringAnother_shouldKeepChangesMadeMeanwhile() throws Exception {
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Old drill");
+        item.setAvailable(true);
+        AtomicReference<Item> stored = new AtomicReference<>(item);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ItemRepository repository = mock(ItemRepository.class);
+        when(repository.findAllByAvailableTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(call -> {
+            if ((long) call.getArgument(0) > 0) {
+                return new SliceImpl<>(List.of());
+            }
+            Item snapshot = stored.get();
+            if (loads.incrementAndGet() == 1) {
+                loading.countDown();
+                loaded.await();
+            }
+            return new SliceImpl<>(List.of(snapshot));
+        });
+        ItemSearchIndex rebuilt = new ItemSearchIndex(repository, true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(rebuilt::rebuild);
+            loading.await();
+            Future<?> second = executor.submit(rebuilt::rebuild);
+            Thread.sleep(100);
+
+            Item renamed = new Item();
+            renamed.setId(1L);
+            renamed.setName("New hammer");
+            renamed.setAvailable(true);
+            stored.set(renamed);
+            rebuilt.onItemChanged(ItemChangedEvent.of(renamed));
+            loaded.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(1L), ids(rebuilt.search("hammer")));
+        assertTrue(rebuilt.search("drill").isEmpty());
+    }
+
+    private void assertConsistentWithSql() {
+        for (String query : queries()) {
+            List<Long> expected = itemRepository.searchItemByText(query).stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            assertEquals(expected, ids(index.search(query)), "query: " + query);
+            assertEquals(expected.subList(Math.min(2, expected.size()), Math.min(5, expected.size())),
+                    ids(index.search(query, 2, 3)), "page of query: " + query);
+        }
+        for (String word : WORDS) {
+            for (int length = 1; length <= word.length(); length++) {
+                String prefix = word.substring(0, length);
+                assertEquals(itemRepository.suggestItemNames(prefix, PageRequest.of(0, 10)),
+                        index.suggest(prefix, 10), "prefix: " + prefix);
+            }
+        }
+    }
+
+    private Set<String> queries() {
+        Set<String> queries = new LinkedHashSet<>(List.of("%", "_", "zzz", "r", "dr", "DRILL", "Щётка", "o b"));
+        for (String word : WORDS) {
+            queries.add(word);
+            queries.add(word.toUpperCase(Locale.ROOT));
+            int start = random.nextInt(word.length());
+            queries.add(word.substring(start, Math.min(word.length(), start + 1 + random.nextInt(4))));
+        }
+        return queries;
+    }
+
+    private String phrase(int words) {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < words; i++) {
+            parts.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return String.join(" ", parts);
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
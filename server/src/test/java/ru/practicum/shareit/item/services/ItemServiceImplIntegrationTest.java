@@ -24,6 +24,7 @@ import ru.practicum.shareit.util.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @SpringBootTest
 @Transactional
@@ -58,7 +59,7 @@ public class ItemServiceImplIntegrationTest {
         itemRepository.save(item1);
         String text = "";
 
-        List<ItemDto> result = itemService.searchItemByText(text);
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
 
         assertThat(result.isEmpty()).isTrue();
     }
@@ -84,12 +85,37 @@ public class ItemServiceImplIntegrationTest {
 
         String text = "item";
 
-        List<ItemDto> result = itemService.searchItemByText(text);
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
 
         assertThat(result.size()).isEqualTo(1);
         assertThat(result.get(0).getName()).isEqualToIgnoringCase("item 1");
     }
 
+    @Test
+    public void testSearchItemByText_withPagination_shouldReturnRankedPage() {
+        User user = new User();
+        user.setName("John");
+        user.setEmail("john@example.com");
+        User savedUser = userRepository.save(user);
+
+        for (int i = 1; i <= 5; i++) {
+            Item item = new Item();
+            item.setName(i % 2 == 0 ? "Drill " + i : "Tool " + i);
+            item.setDescription("Cordless drill");
+            item.setAvailable(true);
+            item.setOwner(savedUser.getId());
+            itemRepository.save(item);
+        }
+
+        List<ItemDto> firstPage = itemService.searchItemByText("drill", 0, 2);
+        List<ItemDto> secondPage = itemService.searchItemByText("drill", 2, 2);
+        List<ItemDto> shiftedPage = itemService.searchItemByText("drill", 1, 2);
+
+        assertEquals(List.of("Drill 2", "Drill 4"), firstPage.stream().map(ItemDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of("Tool 1", "Tool 3"), secondPage.stream().map(ItemDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of("Drill 4", "Tool 1"), shiftedPage.stream().map(ItemDto::getName).collect(Collectors.toList()));
+    }
+
     @Test
     public void updateItem_withValidData_shouldUpdateItem() {
         User user = new User();
@@ -314,11 +340,13 @@ public class ItemServiceImplIntegrationTest {
         assertEquals("Item 1", items.get(0).getName());
         assertEquals("Description 1", items.get(0).getDescription());
         assertTrue(items.get(0).getAvailable());
+        assertEquals(2, items.get(0).getComments().size());
 
         assertEquals(savedItem2.getId(), items.get(1).getId());
         assertEquals("Item 2", items.get(1).getName());
         assertEquals("Description 2", items.get(1).getDescription());
         assertFalse(items.get(1).getAvailable());
+        assertTrue(items.get(1).getComments().isEmpty());
     }
 
     @Test
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.BookingDate;
+import ru.practicum.shareit.booking.model.ItemBookingDate;
 import ru.practicum.shareit.booking.repositories.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequest;
 import ru.practicum.shareit.exceptions.EntityNotFound;
@@ -23,6 +25,7 @@ import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.services.UserService;
 import ru.practicum.shareit.util.BookingStatus;
+import ru.practicum.shareit.util.OffsetPageRequest;
 import static org.mockito.ArgumentMatchers.any;
 
 import java.time.LocalDateTime;
@@ -46,7 +49,11 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -71,7 +78,6 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemRepository.save(item)).thenReturn(item);
-        when(modelMapper.map(item, ItemDto.class)).thenReturn(itemDto1);
 
         ItemDto updatedItem = itemService.updateItem(itemDto, itemId, userId);
 
@@ -99,7 +105,6 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemRepository.save(item)).thenReturn(item);
-        when(modelMapper.map(item, ItemDto.class)).thenReturn(itemDto1);
 
         ItemDto updatedItem = itemService.updateItem(itemDto, itemId, userId);
 
@@ -129,7 +134,6 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemRepository.save(item)).thenReturn(item);
-        when(modelMapper.map(item, ItemDto.class)).thenReturn(itemDto1);
 
         ItemDto updatedItem = itemService.updateItem(itemDto, itemId, userId);
 
@@ -244,9 +248,12 @@ class ItemServiceImplTest {
         item.setAvailable(true);
 
         doNothing().when(userService).isExistUser(userId);
-        when(modelMapper.map(itemDto, Item.class)).thenReturn(item);
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        itemService.createItem(itemDto, userId);
+        ItemDto result = itemService.createItem(itemDto, userId);
+
+        assertTrue(result.getComments().isEmpty());
+        verify(eventPublisher).publishEvent(any(ItemChangedEvent.class));
 
         verify(itemRepository).save(any(Item.class));
     }
@@ -269,34 +276,129 @@ class ItemServiceImplTest {
     public void testSearchItemByTextWhenTextIsNotBlank() {
         String text = "search text";
         Item item1 = new Item();
+        item1.setId(1L);
         Item item2 = new Item();
+        item2.setId(2L);
         List<Item> items = Arrays.asList(item1, item2);
 
-        when(itemRepository.searchItemByText(text)).thenReturn(items);
+        when(itemRepository.searchItemByText(eq(text), any(Pageable.class))).thenReturn(items);
 
-        List<ItemDto> result = itemService.searchItemByText(text);
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
 
         assertEquals(items.size(), result.size());
-        verify(itemRepository, times(1)).searchItemByText(text);
+        verify(itemRepository, times(1)).searchItemByText(text, OffsetPageRequest.ofOffset(0, 100));
+    }
+
+    @Test
+    public void testSearchItemByText_whenIndexIsReady_shouldNotQueryItems() {
+        String text = "drill";
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(text, 0, 100)).thenReturn(List.of(itemDto));
+
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
+
+        assertEquals(List.of(itemDto), result);
+        verify(itemRepository, never()).searchItemByText(any(), any());
     }
 
     @Test
     public void testSearchItemByTextWhenTextIsNotBlankAndItemsNotExist_shouldReturnEmptyList() {
         String text = "search text";
 
-        when(itemRepository.searchItemByText(text)).thenReturn(Collections.emptyList());
+        when(itemRepository.searchItemByText(eq(text), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        List<ItemDto> result = itemService.searchItemByText(text);
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
 
         assertTrue(result.isEmpty());
-        verify(itemRepository, times(1)).searchItemByText(text);
+        verify(itemRepository, times(1)).searchItemByText(text, OffsetPageRequest.ofOffset(0, 100));
+    }
+
+    @Test
+    public void testSearchItemByText_withPagination_shouldRequestPage() {
+        String text = "drill";
+        when(itemRepository.searchItemByText(eq(text), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        itemService.searchItemByText(text, 20, 10);
+
+        verify(itemRepository).searchItemByText(text, OffsetPageRequest.ofOffset(20, 10));
+    }
+
+    @Test
+    public void testSearchItemByText_withOffsetInsideAPage_shouldStartAtTheOffset() {
+        String text = "drill";
+        when(itemRepository.searchItemByText(eq(text), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        itemService.searchItemByText(text, 15, 10);
+
+        verify(itemRepository).searchItemByText(eq(text), argThat(pageable -> pageable.getOffset() == 15
+                && pageable.getPageSize() == 10));
+    }
+
+    @Test
+    public void testSearchItemByText_withTooLargePage_shouldThrowBadRequest() {
+        assertThrows(BadRequest.class, () -> itemService.searchItemByText("drill", 0, 101));
+        assertThrows(BadRequest.class, () -> itemService.searchItemByText("drill", -1, 10));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testSuggestItemNames_whenIndexIsReady_shouldNotQueryItems() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.suggest("dri", 5)).thenReturn(List.of("Drill", "Cordless drill"));
+
+        List<String> result = itemService.suggestItemNames("  dri", 5);
+
+        assertEquals(List.of("Drill", "Cordless drill"), result);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testSuggestItemNames_whenIndexIsNotReady_shouldQueryItems() {
+        when(itemRepository.suggestItemNames("dri", PageRequest.of(0, 10))).thenReturn(List.of("Drill"));
+
+        List<String> result = itemService.suggestItemNames("dri", null);
+
+        assertEquals(List.of("Drill"), result);
+    }
+
+    @Test
+    public void testSuggestItemNames_withBlankPrefixOrBadSize() {
+        assertTrue(itemService.suggestItemNames(" ", null).isEmpty());
+        assertThrows(BadRequest.class, () -> itemService.suggestItemNames("dri", 11));
+        assertThrows(BadRequest.class, () -> itemService.suggestItemNames("dri", 0));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testExportItemsByText_shouldReadChunksAfterLastId() {
+        String text = "drill";
+        List<Item> firstChunk = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Item item = new Item();
+            item.setId(id);
+            firstChunk.add(item);
+        }
+        Item last = new Item();
+        last.setId(501L);
+        when(itemRepository.searchItemByTextAfterId(text, 0, PageRequest.of(0, 500))).thenReturn(firstChunk);
+        when(itemRepository.searchItemByTextAfterId(text, 500, PageRequest.of(0, 500))).thenReturn(List.of(last));
+        List<ItemDto> exported = new ArrayList<>();
+
+        itemService.exportItemsByText(text, exported::addAll);
+
+        assertEquals(501, exported.size());
+        assertEquals(501L, exported.get(500).getId());
+        verify(itemRepository, times(2)).searchItemByTextAfterId(eq(text), anyLong(), any(Pageable.class));
     }
 
     @Test
     public void testSearchItemByTextWhenTextIsBlank_shouldReturnEmptyList() {
         String text = "";
 
-        List<ItemDto> result = itemService.searchItemByText(text);
+        List<ItemDto> result = itemService.searchItemByText(text, null, null);
 
         assertTrue(result.isEmpty());
 
@@ -328,8 +430,6 @@ class ItemServiceImplTest {
         Page<Item> page = new PageImpl<>(items);
 
         when(itemRepository.findAllByOwner(ownerId, PageRequest.of(from, size))).thenReturn(page);
-        when(modelMapper.map(item1, ItemDto.class)).thenReturn(itemDto1);
-        when(modelMapper.map(item2, ItemDto.class)).thenReturn(itemDto2);
 
         List<ItemDto> itemsDto = itemService.getItems(ownerId, from, size);
         assertEquals(items.size(), itemsDto.size());
@@ -360,8 +460,6 @@ class ItemServiceImplTest {
         itemDto2.setId(item2.getId());
 
         when(itemRepository.findAllByOwner(ownerId)).thenReturn(items);
-        when(modelMapper.map(item1, ItemDto.class)).thenReturn(itemDto1);
-        when(modelMapper.map(item2, ItemDto.class)).thenReturn(itemDto2);
 
         List<ItemDto> itemsDto = itemService.getItems(ownerId, from, size);
         assertEquals(items.size(), itemsDto.size());
@@ -394,8 +492,6 @@ class ItemServiceImplTest {
         when(itemRepository.findAllByOwner(ownerId)).thenReturn(items);
         when(bookingRepository.findAllNextBooking(eq(List.of(item1.getId(), item2.getId())), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
-        when(modelMapper.map(item1, ItemDto.class)).thenReturn(itemDto1);
-        when(modelMapper.map(item2, ItemDto.class)).thenReturn(itemDto2);
 
         List<ItemDto> itemsDto = itemService.getItems(ownerId, from, size);
         assertEquals(items.size(), itemsDto.size());
@@ -430,8 +526,6 @@ class ItemServiceImplTest {
         when(itemRepository.findAllByOwner(ownerId)).thenReturn(items);
         when(bookingRepository.findAllLastBooking(eq(List.of(item1.getId(), item2.getId())), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
-        when(modelMapper.map(item1, ItemDto.class)).thenReturn(itemDto1);
-        when(modelMapper.map(item2, ItemDto.class)).thenReturn(itemDto2);
 
         List<ItemDto> itemsDto = itemService.getItems(ownerId, from, size);
         assertEquals(items.size(), itemsDto.size());
@@ -441,6 +535,37 @@ class ItemServiceImplTest {
         assertNull(itemsDto.get(1).getLastBooking());
     }
 
+    @Test
+    public void testGetItems_shouldMatchBookingDatesByItemId() {
+        long ownerId = 1L;
+
+        Item item1 = new Item();
+        item1.setId(1L);
+        Item item2 = new Item();
+        item2.setId(2L);
+        ItemDto itemDto1 = new ItemDto();
+        itemDto1.setId(item1.getId());
+        ItemDto itemDto2 = new ItemDto();
+        itemDto2.setId(item2.getId());
+
+        ItemBookingDate nextForItem2 = itemBookingDate(20L, item2.getId());
+        ItemBookingDate lastForItem2 = itemBookingDate(21L, item2.getId());
+        ItemBookingDate lastForItem1 = itemBookingDate(11L, item1.getId());
+
+        when(itemRepository.findAllByOwner(ownerId)).thenReturn(List.of(item1, item2));
+        when(bookingRepository.findAllNextBooking(eq(List.of(item1.getId(), item2.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(nextForItem2));
+        when(bookingRepository.findAllLastBooking(eq(List.of(item1.getId(), item2.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastForItem2, lastForItem1));
+
+        List<ItemDto> itemsDto = itemService.getItems(ownerId, null, null);
+
+        assertNull(itemsDto.get(0).getNextBooking());
+        assertEquals(lastForItem1, itemsDto.get(0).getLastBooking());
+        assertEquals(nextForItem2, itemsDto.get(1).getNextBooking());
+        assertEquals(lastForItem2, itemsDto.get(1).getLastBooking());
+    }
+
     @Test
     public void testGetItems_withPagination_invalidPageRequest_shouldThrowBedRequest() {
         long ownerId = 1L;
@@ -504,11 +629,10 @@ class ItemServiceImplTest {
         ItemDto expectedDto = new ItemDto();
         expectedDto.setId(itemId);
         expectedDto.setLastBooking(lastBookingDate);
-        expectedDto.setLastBooking(nextBookingDate);
+        expectedDto.setNextBooking(nextBookingDate);
 
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(modelMapper.map(item, ItemDto.class)).thenReturn(expectedDto);
         when(bookingRepository.findLastBooking(eq(itemId), any(LocalDateTime.class))).thenReturn(lastBookingDate);
         when(bookingRepository.findNextBooking(eq(itemId), any(LocalDateTime.class))).thenReturn(nextBookingDate);
 
@@ -543,7 +667,6 @@ class ItemServiceImplTest {
 
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(modelMapper.map(item, ItemDto.class)).thenReturn(expectedDto);
 
         ItemDto actualDto = itemService.getItemDtoById(itemId, userId);
 
@@ -584,4 +707,28 @@ class ItemServiceImplTest {
         assertEquals(itemId, actual.getId());
         verify(itemRepository, times(1)).findById(itemId);
     }
-}
\ No newline at end of file
+
+    private ItemBookingDate itemBookingDate(Long id, Long itemId) {
+        return new ItemBookingDate() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getBookingDate() {
+                return null;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return null;
+            }
+        };
+    }
+}
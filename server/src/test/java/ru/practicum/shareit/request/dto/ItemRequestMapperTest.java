@@ -0,0 +1,36 @@
+package ru.practicum.shareit.request.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemRequestMapperTest {
+    @Test
+    public void testToItemRequestDtoAndBack() {
+        Item item = new Item();
+        item.setId(5L);
+        ItemRequest request = new ItemRequest();
+        request.setId(1L);
+        request.setDescription("Need a drill");
+        request.setCreated(LocalDateTime.of(2023, 4, 1, 12, 0));
+        request.setOwner(2L);
+        request.setItems(List.of(item));
+
+        ItemRequestDto dto = ItemRequestMapper.toItemRequestDto(request);
+
+        assertEquals(1L, dto.getId());
+        assertEquals("Need a drill", dto.getDescription());
+        assertEquals(request.getCreated(), dto.getCreated());
+        assertNull(dto.getItems());
+
+        ItemRequest mapped = ItemRequestMapper.toItemRequest(dto);
+        assertEquals(request.getDescription(), mapped.getDescription());
+        assertNull(mapped.getOwner());
+        assertTrue(mapped.getItems().isEmpty());
+    }
+}
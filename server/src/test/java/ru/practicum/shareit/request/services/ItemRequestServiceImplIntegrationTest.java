@@ -6,6 +6,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.BadRequest;
 import ru.practicum.shareit.exceptions.EntityNotFound;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repositories.RequestRepository;
@@ -31,6 +33,9 @@ class ItemRequestServiceImplIntegrationTest {
     @Autowired
     private RequestRepository itemRequestRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
     @Test
     public void shouldCreateRequest_success() {
         User user = new User();
@@ -89,6 +94,34 @@ class ItemRequestServiceImplIntegrationTest {
         assertEquals(request.getCreated(), result.getCreated());
     }
 
+    @Test
+    public void getRequestById_shouldReturnRequestItems() {
+        User user = new User();
+        user.setName("John");
+        user.setEmail("johndoe@example.com");
+        userRepository.save(user);
+
+        ItemRequest request = new ItemRequest();
+        request.setOwner(user.getId());
+        request.setDescription("Test request");
+        request.setCreated(LocalDateTime.now());
+        itemRequestRepository.save(request);
+
+        Item item = new Item();
+        item.setName("Drill");
+        item.setDescription("Cordless drill");
+        item.setAvailable(true);
+        item.setOwner(user.getId());
+        item.setRequestId(request.getId());
+        itemRepository.save(item);
+
+        ItemRequestDto result = itemRequestService.getRequestById(request.getId(), user.getId());
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(item.getId(), result.getItems().get(0).getId());
+        assertEquals(request.getId(), result.getItems().get(0).getRequestId());
+    }
+
     @Test
     public void getRequestById_InvalidRequestId_ThrowsEntityNotFound() {
         long invalidId = 100L;
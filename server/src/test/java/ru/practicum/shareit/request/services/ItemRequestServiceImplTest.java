@@ -4,7 +4,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -12,6 +11,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.exceptions.BadRequest;
 import ru.practicum.shareit.exceptions.EntityNotFound;
+import ru.practicum.shareit.item.repositories.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repositories.RequestRepository;
@@ -34,11 +34,12 @@ class ItemRequestServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @InjectMocks
     private ItemRequestServiceImpl requestService;
 
-    @Mock
-    private ModelMapper modelMapper;
 
 
     @Test
@@ -48,16 +49,9 @@ class ItemRequestServiceImplTest {
         requestDto.setId(1L);
         requestDto.setDescription("Test Description");
         requestDto.setCreated(LocalDateTime.now());
-        ItemRequest request = new ItemRequest();
-        request.setDescription(requestDto.getDescription());
-        request.setOwner(userId);
-        request.setCreated(requestDto.getCreated());
-
 
         doNothing().when(userService).isExistUser(userId);
-        when(requestRepository.save(request)).thenReturn(request);
-        when(modelMapper.map(requestDto, ItemRequest.class)).thenReturn(request);
-        when(modelMapper.map(request, ItemRequestDto.class)).thenReturn(requestDto);
+        when(requestRepository.save(any(ItemRequest.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         ItemRequestDto result = requestService.createRequest(requestDto, userId);
 
@@ -83,15 +77,12 @@ class ItemRequestServiceImplTest {
         long userId = 1;
         long requestId = 1;
         ItemRequest request = new ItemRequest();
+        request.setId(requestId);
         request.setOwner(userId);
         request.setDescription("text");
-        ItemRequestDto requestDto = new ItemRequestDto();
-        requestDto.setId(requestId);
-        requestDto.setDescription("text");
 
         doNothing().when(userService).isExistUser(userId);
         when(requestRepository.findById(requestId)).thenReturn(Optional.of(request));
-        when(modelMapper.map(request, ItemRequestDto.class)).thenReturn(requestDto);
 
         ItemRequestDto actualResultDto = requestService.getRequestById(requestId, userId);
 
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.user.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserMapperTest {
+    @Test
+    public void testToUserDtoAndBack() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Test User");
+        user.setEmail("test@test.com");
+
+        UserDto dto = UserMapper.toUserDto(user);
+
+        assertEquals(1L, dto.getId());
+        assertEquals("Test User", dto.getName());
+        assertEquals("test@test.com", dto.getEmail());
+        assertEquals(user, UserMapper.toUser(dto));
+        assertNull(UserMapper.toUserDto(null));
+    }
+}
@@ -4,7 +4,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.modelmapper.ModelMapper;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.exceptions.AlreadyUsedEmail;
 import ru.practicum.shareit.exceptions.EntityNotFound;
@@ -25,8 +24,6 @@ public class UserServiceImplTest {
     @InjectMocks
     private UserServiceImpl userService;
     @Mock
-    private ModelMapper modelMapper;
-    @Mock
     private UserRepository userRepository;
 
     @Test
@@ -55,7 +52,6 @@ public class UserServiceImplTest {
         when(userRepository.findByEmail(updatedUserDto.getEmail())).thenReturn(Optional.of(user));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.save(updatedUser)).thenReturn(updatedUser);
-        when(modelMapper.map(updatedUser, UserDto.class)).thenReturn(userDto);
 
 
         UserDto actualUser = userService.updateUser(updatedUserDto, userId);
@@ -91,7 +87,6 @@ public class UserServiceImplTest {
         when(userRepository.findByEmail(updatedUserDto.getEmail())).thenReturn(Optional.of(user));
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.save(updatedUser)).thenReturn(updatedUser);
-        when(modelMapper.map(updatedUser, UserDto.class)).thenReturn(userDto);
 
 
         UserDto actualUser = userService.updateUser(updatedUserDto, userId);
@@ -162,8 +157,6 @@ public class UserServiceImplTest {
         userDto.setEmail("john@example.com");
 
         when(userRepository.save(existingUser)).thenReturn(existingUser);
-        when(modelMapper.map(userDto, User.class)).thenReturn(existingUser);
-        when(modelMapper.map(existingUser, UserDto.class)).thenReturn(userDto);
 
         userService.createUser(userDto);
 
@@ -184,7 +177,6 @@ public class UserServiceImplTest {
         userDto.setEmail("john@example.com");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(modelMapper.map(existingUser, UserDto.class)).thenReturn(userDto);
 
         userService.getUserDtoById(userId);
 
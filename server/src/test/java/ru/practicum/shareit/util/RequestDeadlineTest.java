@@ -0,0 +1,72 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class RequestDeadlineTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void testGetUsers_withNoTimeLeft_shouldAnswerGatewayTimeout() throws Exception {
+        mockMvc.perform(get("/users").header(RequestDeadline.HEADER, "0"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value("Request deadline exceeded"));
+    }
+
+    @Test
+    public void testGetUsers_withTimeLeft_shouldAnswer() throws Exception {
+        mockMvc.perform(get("/users").header(RequestDeadline.HEADER, "5000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testTransaction_withDeadline_shouldTimeOutByIt() {
+        RequestDeadline.start(1500);
+
+        long timeToLive = new TransactionTemplate(transactionManager).execute(status ->
+                ((EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory))
+                        .getTimeToLiveInSeconds());
+
+        assertEquals(2, timeToLive);
+    }
+
+    @Test
+    public void testTransaction_withDeadlinePassed_shouldNotBegin() throws InterruptedException {
+        RequestDeadline.start(1);
+        Thread.sleep(5);
+
+        assertThrows(TransactionTimedOutException.class,
+                () -> new TransactionTemplate(transactionManager).execute(status -> null));
+    }
+}